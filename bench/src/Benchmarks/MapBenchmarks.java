@@ -0,0 +1,164 @@
+package Benchmarks;
+
+import Classes.Index2D;
+import Classes.Interfaces.Map2D;
+import Classes.Interfaces.Pixel2D;
+import Classes.MapCodec;
+import Classes.MyMap;
+import Classes.SearchMode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH micro-benchmarks of the Map2D engine (MyMap): fill, shortestPath (per SearchMode), allDistance,
+ * drawCircle, drawLine, rescale, mapFromString and the MapCodec encodings (an encode/decode round trip), over square
+ * maps of every size, obstacle density and cyclic flag of the parameters.
+ * <p>
+ * Usage (any JMH option; -prof gc adds the bytes allocated per call, gc.alloc.rate.norm):
+ * <pre>
+ *     gradle jmh -PjmhArgs='MapBenchmarks.shortestPath -p size=64,256 -p density=0.2 -p cyclic=true -prof gc'
+ * </pre>
+ * Run it with nothing else running when comparing two versions of the engine.
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapBenchmarks {
+
+    private static final int OBS = 1;
+    private static final int FREE = 0;
+    private static final int FILL_COLOR = 5;
+    private static final long SEED = 31;
+
+    /** The width and height of the map. */
+    @Param({"10", "64", "256", "1024", "4096"})
+    public int size;
+    /** The probability of a cell to be an obstacle. */
+    @Param({"0", "0.2", "0.35"})
+    public double density;
+    /** Whether the map is cyclic. */
+    @Param({"true", "false"})
+    public boolean cyclic;
+
+    private MyMap BASE;
+    private Pixel2D START, END, CENTER, LINE_START, LINE_END;
+    // every benchmark that modifies a map (or caches something on it) gets its own copy of BASE
+    private MyMap FILL_MAP, BFS_MAP, A_STAR_MAP, BIDIRECTIONAL_MAP, DISTANCE_MAP, CIRCLE_MAP, LINE_MAP, RESCALE_MAP;
+    private int FILL = FILL_COLOR;
+    private String TEXT;
+
+    @Setup
+    public void setup() {
+        this.BASE = randomMap(this.size, this.density, this.cyclic, SEED);
+        this.START = new Index2D(0, 0);
+        // on a torus the opposite corners are neighbours, so the farthest point from (0,0) is the middle of the map
+        this.END = this.cyclic ? new Index2D(this.size / 2, this.size / 2) : new Index2D(this.size - 1, this.size - 1);
+        this.CENTER = new Index2D(this.size / 2, this.size / 2);
+        // drawLine paints (x-1, f(x)-1), so the diagonal starts at (1,1) to stay inside the map
+        this.LINE_START = new Index2D(1, 1);
+        this.LINE_END = new Index2D(this.size - 1, this.size - 1);
+        this.FILL_MAP = copy(this.BASE);
+        this.BFS_MAP = copy(this.BASE, SearchMode.BFS);
+        this.A_STAR_MAP = copy(this.BASE, SearchMode.A_STAR);
+        this.BIDIRECTIONAL_MAP = copy(this.BASE, SearchMode.BIDIRECTIONAL);
+        this.DISTANCE_MAP = copy(this.BASE);
+        this.CIRCLE_MAP = copy(this.BASE);
+        this.LINE_MAP = copy(this.BASE);
+        this.RESCALE_MAP = copy(this.BASE);
+        this.TEXT = this.BASE.toString();
+    }
+
+    /** Toggles the start region between two colors, so every call repaints the same region. */
+    @Benchmark
+    public int fill() {
+        int ans = this.FILL_MAP.fill(this.START, this.FILL);
+        this.FILL = this.FILL == FILL_COLOR ? FREE : FILL_COLOR;
+        return ans;
+    }
+
+    @Benchmark
+    public Pixel2D[] shortestPathBfs() {return this.BFS_MAP.shortestPath(this.START, this.END, OBS);}
+
+    @Benchmark
+    public Pixel2D[] shortestPathAStar() {return this.A_STAR_MAP.shortestPath(this.START, this.END, OBS);}
+
+    @Benchmark
+    public Pixel2D[] shortestPathBidirectional() {return this.BIDIRECTIONAL_MAP.shortestPath(this.START, this.END, OBS);}
+
+    @Benchmark
+    public Map2D allDistance() {return this.DISTANCE_MAP.allDistance(this.START, OBS);}
+
+    @Benchmark
+    public MyMap drawCircle() {
+        this.CIRCLE_MAP.drawCircle(this.CENTER, this.size / 3.0, FILL_COLOR);
+        return this.CIRCLE_MAP;
+    }
+
+    @Benchmark
+    public MyMap drawLine() {
+        this.LINE_MAP.drawLine(this.LINE_START, this.LINE_END, FILL_COLOR);
+        return this.LINE_MAP;
+    }
+
+    /** A down/up pair keeps the map size (and the memory) stable between calls. */
+    @Benchmark
+    public MyMap rescale() {
+        this.RESCALE_MAP.rescale(0.5, 0.5);
+        this.RESCALE_MAP.rescale(2, 2);
+        return this.RESCALE_MAP;
+    }
+
+    @Benchmark
+    public MyMap mapFromString() {return MyMap.mapFromString(this.TEXT);}
+
+    @Benchmark
+    public MyMap codecRaw() throws IOException {return MapCodec.decode(MapCodec.encode(this.BASE, MapCodec.Encoding.RAW));}
+
+    @Benchmark
+    public MyMap codecRle() throws IOException {return MapCodec.decode(MapCodec.encode(this.BASE, MapCodec.Encoding.RLE));}
+
+    /**
+     * Builds a size*size map where every cell is an obstacle with probability density.
+     * The cells used as start/end points of the searches (the corners and the middle) are always free.
+     */
+    public static MyMap randomMap(int size, double density, boolean cyclic, long seed) {
+        Random rnd = new Random(seed ^ (size * 31L) ^ Double.doubleToLongBits(density));
+        MyMap ans = new MyMap(size, size, FREE, cyclic);
+        for (int y = 0; y < size; y+=1) {
+            for (int x = 0; x < size; x+=1) {
+                if (rnd.nextDouble() < density) {ans.setPixel(x, y, OBS);}
+            }
+        }
+        ans.setPixel(0, 0, FREE);
+        ans.setPixel(size - 1, size - 1, FREE);
+        ans.setPixel(size / 2, size / 2, FREE);
+        return ans;
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private static MyMap copy(Map2D map) {return new MyMap(map.getMap(), map.isCyclic());}
+
+    private static MyMap copy(Map2D map, SearchMode mode) {
+        MyMap ans = copy(map);
+        ans.setSearchMode(mode);
+        return ans;
+    }
+}
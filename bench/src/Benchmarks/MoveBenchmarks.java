@@ -0,0 +1,108 @@
+package Benchmarks;
+
+import exe.ex3.game.PacManAlgo;
+import exe.ex3.game.PacmanGame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH decision-latency benchmark of the game algorithm (GameInfo.ALGO's class, Ex3Algo by default).
+ * <p>
+ * For every scenario a game is recorded first (HeadlessGame.record): the algorithm plays it on a HeadlessGame and the
+ * state before each move is frozen into a GameSnapshot. Every iteration then replays the recording through a fresh
+ * algorithm instance (in order, so state kept between moves behaves like in a real game; an iteration that gets past
+ * the last state starts over on the same instance) and samples the time of every move() call, so JMH reports its
+ * percentiles. Building and closing the instances (RolloutAlgo's worker pool) is left out of the timed calls.
+ * </p>
+ * <p>
+ * Usage (any JMH option; -prof gc adds the bytes allocated per call, gc.alloc.rate.norm):
+ * <pre>
+ *     gradle jmh -PjmhArgs='MoveBenchmarks -p scenario=0,4 -p cyclic=true,false -prof gc'
+ * </pre>
+ * </p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(1)
+public class MoveBenchmarks {
+
+    /** The scenario of the recorded game (0..Scenarios.COUNT-1). */
+    @Param({"0", "1", "2", "3", "4"})
+    public int scenario;
+    /** Whether the recorded board is cyclic. */
+    @Param({"true"})
+    public boolean cyclic;
+    /** The number of recorded states. */
+    @Param({"500"})
+    public int moves;
+    /** The seed of the recorded game. */
+    @Param({"31"})
+    public long seed;
+
+    private Class<? extends PacManAlgo> ALGO;
+    private PacmanGame[] STATES;
+    private PacManAlgo CURRENT;
+    private int NEXT = 0;
+
+    @Setup
+    public void setup() throws Exception {
+        // JMH needs the benchmarks in a named package, which can't see the game's default package: it is reached by name
+        this.ALGO = ((PacManAlgo) Class.forName("GameInfo").getField("ALGO").get(null)).getClass();
+        PacManAlgo recorder = this.newAlgo();
+        this.STATES = (PacmanGame[]) Class.forName("HeadlessGame")
+                .getMethod("record", PacManAlgo.class, int.class, boolean.class, int.class, long.class)
+                .invoke(null, recorder, this.scenario, this.cyclic, this.moves, this.seed);
+        close(recorder);
+    }
+
+    @Setup(Level.Iteration)
+    public void newReplay() {
+        this.CURRENT = this.newAlgo();
+        this.NEXT = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void endReplay() throws Exception {
+        close(this.CURRENT);
+        this.CURRENT = null;
+    }
+
+    @Benchmark
+    public int move() {
+        if (this.NEXT == this.STATES.length) {this.NEXT = 0;}
+        int ans = this.CURRENT.move(this.STATES[this.NEXT]);
+        this.NEXT += 1;
+        return ans;
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private static void close(PacManAlgo algo) throws Exception {
+        if (algo instanceof AutoCloseable closeable) {closeable.close();}
+    }
+
+    private PacManAlgo newAlgo() {
+        try {
+            return this.ALGO.getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("can't create a new " + this.ALGO.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+import Classes.Interfaces.Pixel2D;
+import Classes.MyMap;
+import exe.ex3.game.Game;
+import exe.ex3.game.GhostCL;
+import exe.ex3.game.PacManAlgo;
+import exe.ex3.game.PacmanGame;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * A PacmanGame without a window, frame sleeps or wall clock, for running many games of an algorithm fast.
+ * <p>
+ * The rules follow exe.ex3.game.Game as far as they can be observed through the PacmanGame interface:
+ * play() starts (or resumes) the game, every move(dir) is one tick in which Pac-Man takes a step (walls block it,
+ * a cyclic board wraps around) and then every ghost takes a step. A pink pellet is worth PINK_POINTS, a green one
+ * GREEN_POINTS and makes all the ghosts eatable for EATABLE_TIME seconds; eating a ghost is worth GHOST_POINTS and
+ * sends it back to its start cell. Meeting a ghost that is not eatable ends the game, as does eating the last pellet
+ * or reaching the steps limit. Time is game time (ticks * GameInfo.DT), so a game is deterministic given its seed.
+ * </p>
+ * <p>
+ * The boards are the {@link Scenarios} stand-ins, since the real levels are not available outside the GUI game.
+ * Ghosts with an even index walk randomly (GhostCL.RANDOM_WALK0); the others chase Pac-Man along a shortest path
+ * (GhostCL.GREEDY_SP) and run away from him while they are eatable.
+ * </p>
+ */
+public class HeadlessGame implements PacmanGame {
+
+    public static final int PINK_POINTS = 1;
+    public static final int GREEN_POINTS = 5;
+    public static final int GHOST_POINTS = 20;
+    /** How long the ghosts stay eatable after a green pellet, in seconds. */
+    public static final double EATABLE_TIME = 5;
+
+    private static final int WALL = Game.getIntColor(Color.BLUE, 0);
+    private static final int PINK = Game.getIntColor(Color.PINK, 0);
+    private static final int GREEN = Game.getIntColor(Color.GREEN, 0);
+    private static final int EMPTY = 0;
+
+    private final int SCENARIO;
+    private final long SEED;
+    private final int MAX_STEPS;
+    private final Random RND;
+    private final int[][] BOARD;
+    private final int[][] GHOST_STARTS;
+    private final HGhost[] GHOSTS;
+    // the board as a MyMap (for the chasing ghosts), brought up to date once per tick
+    private final MyMap MAP;
+    private boolean CYCLIC;
+    private int STATUS = INIT;
+    private int STEPS = 0;
+    private int SCORE = 0;
+    private int DOTS = 0;
+    private int KILLS = 0;
+    private int PELLETS_LEFT = 0;
+    private boolean DEAD = false;
+    private int X;
+    private int Y;
+    private int EATABLE_UNTIL = 0;
+
+    /**
+     * Creates a game of the given scenario.
+     * @param scenario the scenario (0..Scenarios.COUNT-1)
+     * @param seed the seed of the board and of the ghosts' moves
+     * @param cyclic true iff the board wraps around its edges
+     * @param maxSteps the game ends after this many moves
+     */
+    public HeadlessGame(int scenario, long seed, boolean cyclic, int maxSteps) {
+        this.SCENARIO = scenario;
+        this.SEED = seed;
+        this.CYCLIC = cyclic;
+        this.MAX_STEPS = maxSteps;
+        this.RND = new Random(seed);
+        this.BOARD = Scenarios.board(scenario, seed);
+        for (int[] column : this.BOARD) {
+            for (int v : column) {
+                if (v == PINK || v == GREEN) {this.PELLETS_LEFT += 1;}
+            }
+        }
+        int[] start = Scenarios.start(scenario);
+        this.X = start[0];
+        this.Y = start[1];
+        this.MAP = new MyMap(this.BOARD, cyclic);
+        this.GHOST_STARTS = Scenarios.ghosts(scenario);
+        this.GHOSTS = new HGhost[this.GHOST_STARTS.length];
+        for (int i = 0; i < this.GHOSTS.length; i+=1) {
+            int type = i % 2 == 0 ? GhostCL.RANDOM_WALK0 : GhostCL.GREEDY_SP;
+            this.GHOSTS[i] = new HGhost(type, this.GHOST_STARTS[i][0], this.GHOST_STARTS[i][1]);
+        }
+    }
+
+    /**
+     * A ghost of this game; it reads the shared eatable timer of the game.
+     */
+    private class HGhost implements GhostCL {
+        private final int TYPE;
+        private int GX;
+        private int GY;
+
+        HGhost(int type, int x, int y) {
+            this.TYPE = type;
+            this.GX = x;
+            this.GY = y;
+        }
+
+        @Override
+        public int getType() {return this.TYPE;}
+
+        @Override
+        public String getPos(int code) {return this.GX + "," + this.GY;}
+
+        @Override
+        public String getInfo() {return "type: " + this.TYPE + ", pos: " + this.getPos(0);}
+
+        @Override
+        public double remainTimeAsEatable(int code) {return eatableTime();}
+
+        @Override
+        public int getStatus() {return STATUS == PLAY ? GhostCL.PLAY : GhostCL.PAUSE;}
+    }
+
+    @Override
+    public Character getKeyChar() {return null;}
+
+    @Override
+    public String getPos(int code) {return this.X + "," + this.Y;}
+
+    @Override
+    public GhostCL[] getGhosts(int code) {return this.GHOSTS.clone();}
+
+    @Override
+    public int[][] getGame(int code) {
+        int[][] ans = new int[this.BOARD.length][];
+        for (int i = 0; i < ans.length; i+=1) {
+            ans[i] = this.BOARD[i].clone();
+        }
+        return ans;
+    }
+
+    /**
+     * Plays one tick: Pac-Man moves in dir (STAY or an unknown direction keeps him in place), then the ghosts move.
+     * Does nothing unless the game is in PLAY.
+     * @return the game data after the tick.
+     */
+    @Override
+    public String move(int dir) {
+        if (this.STATUS != PLAY) {return this.getData(0);}
+        int[] next = Scenarios.step(this.BOARD, this.X, this.Y, dir, this.CYCLIC, WALL);
+        this.X = next[0];
+        this.Y = next[1];
+        this.eat();
+        this.meetGhosts();
+        if (this.STATUS == PLAY) {
+            this.MAP.update(this.BOARD);
+            for (HGhost g : this.GHOSTS) {
+                this.moveGhost(g);
+            }
+            this.meetGhosts();
+        }
+        this.STEPS += 1;
+        if (this.STATUS == PLAY && (this.PELLETS_LEFT == 0 || this.STEPS >= this.MAX_STEPS)) {this.STATUS = DONE;}
+        return this.getData(0);
+    }
+
+    /**
+     * Starts the game, or resumes it if it was paused. A finished game stays DONE.
+     */
+    @Override
+    public void play() {
+        if (this.STATUS == INIT || this.STATUS == PAUSE) {this.STATUS = PLAY;}
+    }
+
+    @Override
+    public String end(int code) {
+        this.STATUS = DONE;
+        return this.getData(code);
+    }
+
+    @Override
+    public String getData(int code) {
+        return "scenario: " + this.SCENARIO + ", seed: " + this.SEED + ", cyclic: " + this.CYCLIC + ", score: " + this.SCORE
+                + ", steps: " + this.STEPS + ", dots: " + this.DOTS + ", kills: " + this.KILLS + ", status: " + this.STATUS;
+    }
+
+    @Override
+    public int getStatus() {return this.STATUS;}
+
+    @Override
+    public boolean isCyclic() {return this.CYCLIC;}
+
+    /**
+     * Only the cyclic flag can be changed on a created game; the other parameters are given to the constructor.
+     */
+    @Override
+    public String init(int scenario, String id, boolean cyclic, long seed, double res, int dt, int code) {
+        this.CYCLIC = cyclic;
+        this.MAP.setCyclic(cyclic);
+        return this.getData(code);
+    }
+
+    /**
+     * @return the current score.
+     */
+    public int getScore() {return this.SCORE;}
+
+    /**
+     * @return the number of moves played.
+     */
+    public int getSteps() {return this.STEPS;}
+
+    /**
+     * @return the number of pellets eaten.
+     */
+    public int getDots() {return this.DOTS;}
+
+    /**
+     * @return the number of ghosts eaten.
+     */
+    public int getKills() {return this.KILLS;}
+
+    /**
+     * @return true iff the game ended because a ghost caught Pac-Man.
+     */
+    public boolean isDead() {return this.DEAD;}
+
+    /**
+     * @return true iff the game ended with every pellet eaten.
+     */
+    public boolean isWon() {return this.PELLETS_LEFT == 0;}
+
+    /**
+     * @return a frozen copy of the current state (see {@link GameSnapshot}).
+     */
+    public GameSnapshot snapshot() {
+        GhostCL[] gs = new GhostCL[this.GHOSTS.length];
+        for (int i = 0; i < gs.length; i+=1) {
+            gs[i] = new GameSnapshot.Ghost(this.GHOSTS[i].TYPE, this.GHOSTS[i].getStatus(), this.GHOSTS[i].GX, this.GHOSTS[i].GY, this.eatableTime());
+        }
+        return new GameSnapshot(this.BOARD, this.X, this.Y, gs, this.CYCLIC);
+    }
+
+    /**
+     * Plays the given scenario with algo and records the state before every move.
+     * When a game ends before moves states were recorded, a new game (with the next seed) continues the recording,
+     * so every recording holds exactly moves states.
+     */
+    public static GameSnapshot[] record(PacManAlgo algo, int scenario, boolean cyclic, int moves, long seed) {
+        List<GameSnapshot> ans = new ArrayList<>();
+        HeadlessGame game = null;
+        while (ans.size() < moves) {
+            if (game == null || game.getStatus() == DONE) {
+                game = new HeadlessGame(scenario, seed, cyclic, moves);
+                game.play();
+                seed += 1;
+            }
+            ans.add(game.snapshot());
+            game.move(algo.move(game));
+        }
+        return ans.toArray(new GameSnapshot[0]);
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private double eatableTime() {return Math.max(0, this.EATABLE_UNTIL - this.STEPS) * GameInfo.DT / 1000.0;}
+
+    private void eat() {
+        int v = this.BOARD[this.X][this.Y];
+        if (v == PINK || v == GREEN) {
+            this.SCORE += v == PINK ? PINK_POINTS : GREEN_POINTS;
+            this.DOTS += 1;
+            this.PELLETS_LEFT -= 1;
+            this.BOARD[this.X][this.Y] = EMPTY;
+            if (v == GREEN) {this.EATABLE_UNTIL = this.STEPS + (int) Math.ceil(EATABLE_TIME * 1000 / GameInfo.DT);}
+        }
+    }
+
+    private void meetGhosts() {
+        for (int i = 0; i < this.GHOSTS.length && this.STATUS == PLAY; i+=1) {
+            HGhost g = this.GHOSTS[i];
+            if (g.GX == this.X && g.GY == this.Y) {
+                if (this.eatableTime() > 0) {
+                    this.SCORE += GHOST_POINTS;
+                    this.KILLS += 1;
+                    g.GX = this.GHOST_STARTS[i][0];
+                    g.GY = this.GHOST_STARTS[i][1];
+                }
+                else {
+                    this.DEAD = true;
+                    this.STATUS = DONE;
+                }
+            }
+        }
+    }
+
+    private void moveGhost(HGhost g) {
+        int dir = UP + this.RND.nextInt(4);
+        if (g.TYPE == GhostCL.GREEDY_SP) {
+            int chase = this.chaseDirection(g);
+            if (chase != STAY) {
+                dir = this.eatableTime() > 0 ? reverse(chase) : chase;
+            }
+        }
+        int[] next = Scenarios.step(this.BOARD, g.GX, g.GY, dir, this.CYCLIC, WALL);
+        g.GX = next[0];
+        g.GY = next[1];
+    }
+
+    // the first step of a shortest path from g to Pac-Man, or STAY if there is none
+    private int chaseDirection(HGhost g) {
+        // the board is [x][y] and MyMap reads it as rows, so the game's x is the map's y
+        Pixel2D[] path = this.MAP.shortestPath(this.MAP.pixel(g.GY, g.GX), this.MAP.pixel(this.Y, this.X), WALL);
+        if (path == null || path.length < 2) {return STAY;}
+        for (int dir = UP; dir <= RIGHT; dir+=1) {
+            int[] next = Scenarios.step(this.BOARD, g.GX, g.GY, dir, this.CYCLIC, WALL);
+            if (next[0] == path[1].getY() && next[1] == path[1].getX()) {return dir;}
+        }
+        return STAY;
+    }
+
+    private static int reverse(int dir) {
+        return switch (dir) {
+            case UP -> DOWN;
+            case DOWN -> UP;
+            case LEFT -> RIGHT;
+            case RIGHT -> LEFT;
+            default -> dir;
+        };
+    }
+}
@@ -0,0 +1,82 @@
+import exe.ex3.game.PacManAlgo;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Replays recorded games (see {@link GameRecorder}, GameInfo.RECORD_GAMES) through a PacManAlgo, offline: every tick
+ * of a recording is streamed into a fresh algorithm (wrapped in a {@link MoveProfiler}), so a slow or bad decision of
+ * a real game can be reproduced and profiled without the GUI.
+ * <p>
+ * For every recording it prints the recorded move times, the replayed ones (MoveProfiler.summary()) and how many
+ * replayed moves differ from the recorded ones. The ticks whose recorded move took longer than slowMs are listed.
+ * </p>
+ * <p>
+ * Usage (a recording, or a directory of them; algo and slowMs are optional):
+ * <pre>
+ *     java -cp out:libs/Ex3_v09e.jar-out.jar ReplayRunner recordings algo=Ex3Algo slowMs=20
+ * </pre>
+ * </p>
+ */
+public class ReplayRunner {
+
+    public static void main(String[] args) throws IOException {
+        String algo = GameInfo.ALGO.getClass().getName();
+        double slowMs = GameInfo.DT;
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq == -1) {
+                Path p = Path.of(arg);
+                if (Files.isDirectory(p)) {
+                    try (var list = Files.list(p)) {list.filter(f -> f.toString().endsWith(".pmr")).sorted().forEach(files::add);}
+                }
+                else {files.add(p);}
+                continue;
+            }
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "algo" -> algo = value;
+                case "slowMs" -> slowMs = Double.parseDouble(value);
+                default -> throw new IllegalArgumentException("unknown argument: " + key);
+            }
+        }
+        if (files.isEmpty()) {throw new IllegalArgumentException("no recording given");}
+
+        for (Path file : files) {
+            MoveProfiler profiler = new MoveProfiler(newAlgo(algo));
+            LatencyHistogram recorded = new LatencyHistogram();
+            long differ = 0;
+            try (GameRecordReader in = GameRecordReader.open(file)) {
+                System.out.println(String.format(Locale.ROOT, "%s: scenario %d, seed %d, dt %dms, %d bytes",
+                        file, in.getScenario(), in.getSeed(), in.getDt(), Files.size(file)));
+                while (in.next()) {
+                    recorded.record(in.getMoveNanos());
+                    if (in.getMoveNanos() > slowMs * 1e6) {
+                        System.out.println(String.format(Locale.ROOT, "  slow tick %d: %.3fms", in.getTick(), in.getMoveNanos() / 1e6));
+                    }
+                    if (profiler.move(in.snapshot()) != in.getMove()) {differ += 1;}
+                }
+            }
+            System.out.println("  recorded: " + recorded);
+            System.out.println("  " + profiler.summary().replace("\n", "\n  "));
+            System.out.println("  moves that differ from the recording: " + differ + " of " + recorded.getCount());
+        }
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private static PacManAlgo newAlgo(String name) {
+        try {
+            return (PacManAlgo) Class.forName(name).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("can't create the algorithm " + name, e);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+import java.util.Locale;
+
+/**
+ * Rollout throughput benchmark of {@link RolloutAlgo}: how many simulated ticks a rollout worker plays per second,
+ * which decides how many rollouts fit in a move (and whether the algorithm is viable on a machine at all).
+ * <p>
+ * For every scenario a game is recorded with GameInfo.ALGO (see {@link HeadlessGame#record}), then a RolloutAlgo
+ * with each of the given worker counts decides every recorded state with the given time budget. One line is printed
+ * per (scenario, workers): rollouts per move, simulated ticks per second in total and per worker, and the mean move time.
+ * The first rounds are a warmup and are not reported.
+ * </p>
+ * <p>
+ * Usage (every argument is optional; threads=0 means one worker per core):
+ * <pre>
+ *     java -cp out:libs/Ex3_v09e.jar-out.jar RolloutBenchmarks scenarios=0,1,2,3,4 cyclic=true threads=1,0 budgetMs=10 depth=24 moves=200 warmups=1 seed=31
+ * </pre>
+ * </p>
+ */
+public class RolloutBenchmarks {
+
+    public static void main(String[] args) {
+        int[] scenarios = {0, 1, 2, 3, 4};
+        boolean[] cyclic = {GameInfo.CYCLIC_MODE};
+        int[] threads = {1, 0};
+        double budgetMs = GameInfo.DT * GameInfo.PLANNER_BUDGET;
+        int depth = GameInfo.ROLLOUT_DEPTH, moves = 200, warmups = 1;
+        long seed = GameInfo.RANDOM_SEED;
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq == -1) {throw new IllegalArgumentException("expected key=value, got: " + arg);}
+            String key = arg.substring(0, eq);
+            String[] values = arg.substring(eq + 1).split(",");
+            switch (key) {
+                case "scenarios" -> scenarios = java.util.Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+                case "cyclic" -> {
+                    cyclic = new boolean[values.length];
+                    for (int i = 0; i < values.length; i+=1) {cyclic[i] = Boolean.parseBoolean(values[i]);}
+                }
+                case "threads" -> threads = java.util.Arrays.stream(values).mapToInt(Integer::parseInt).toArray();
+                case "budgetMs" -> budgetMs = Double.parseDouble(values[0]);
+                case "depth" -> depth = Integer.parseInt(values[0]);
+                case "moves" -> moves = Integer.parseInt(values[0]);
+                case "warmups" -> warmups = Integer.parseInt(values[0]);
+                case "seed" -> seed = Long.parseLong(values[0]);
+                default -> throw new IllegalArgumentException("unknown argument: " + key);
+            }
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-28s %-34s %14s %14s %16s %12s",
+                "Benchmark", "Params", "rollouts/move", "states/s", "states/s/core", "move(us)"));
+        long budgetNanos = (long) (budgetMs * 1_000_000);
+        for (int scenario : scenarios) {
+            for (boolean cy : cyclic) {
+                GameSnapshot[] states = HeadlessGame.record(new Ex3Algo(), scenario, cy, moves, seed);
+                for (int t : threads) {
+                    RolloutAlgo algo = new RolloutAlgo(t, budgetNanos, depth, seed);
+                    for (int w = 0; w < warmups; w+=1) {
+                        for (GameSnapshot s : states) {algo.move(s);}
+                    }
+                    long rollouts = algo.getRollouts(), ticks = algo.getStates();
+                    long start = System.nanoTime();
+                    for (GameSnapshot s : states) {algo.move(s);}
+                    long nanos = System.nanoTime() - start;
+                    rollouts = algo.getRollouts() - rollouts;
+                    ticks = algo.getStates() - ticks;
+                    int workers = t > 0 ? t : Runtime.getRuntime().availableProcessors();
+                    String params = String.format(Locale.ROOT, "scenario=%d %s workers=%d depth=%d", scenario, cy ? "cyclic" : "flat", workers, depth);
+                    double perSecond = ticks / (nanos / 1e9);
+                    System.out.println(String.format(Locale.ROOT, "%-28s %-34s %14.1f %14.0f %16.0f %12.1f",
+                            "RolloutAlgo.move", params, (double) rollouts / states.length, perSecond, perSecond / workers,
+                            nanos / 1e3 / states.length));
+                    algo.close();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+import exe.ex3.game.Game;
+import exe.ex3.game.PacmanGame;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic stand-ins for the game levels (GameInfo.CASE_SCENARIO 0..4), for running the algorithm without the GUI.
+ * <p>
+ * The real levels are loaded by exe.ex3.game.Game from a data file that is not part of the project (and the Game
+ * can't be created without a display), so every scenario here is a braided maze of its own size and number of ghosts:
+ * walls are Color.BLUE, every free cell holds a pink pellet, and the four cells nearest to the corners hold green
+ * power pellets. Boards use the game's [x][y] layout, Pac-Man starts in the middle and the ghosts start at the sides.
+ * </p>
+ */
+public final class Scenarios {
+
+    /** The number of scenarios (GameInfo.CASE_SCENARIO is 0..COUNT-1). */
+    public static final int COUNT = 5;
+
+    private static final int[] SIZES = {15, 21, 27, 33, 41};
+    private static final int[] GHOSTS = {1, 2, 3, 4, 4};
+    // the chance to knock down an inner wall after carving, which opens loops like a Pac-Man board
+    private static final double BRAID = 0.12;
+
+    private Scenarios() {}
+
+    /**
+     * @return the board of the given scenario, in the game's [x][y] layout.
+     */
+    public static int[][] board(int scenario, long seed) {
+        int n = SIZES[scenario];
+        int wall = Game.getIntColor(Color.BLUE, 0);
+        int pink = Game.getIntColor(Color.PINK, 0);
+        int green = Game.getIntColor(Color.GREEN, 0);
+        Random rnd = new Random(seed * 31 + scenario);
+        int[][] ans = new int[n][n];
+        for (int[] row : ans) {java.util.Arrays.fill(row, wall);}
+
+        // carve a spanning tree over the odd cells (iterative DFS), then braid it
+        List<int[]> stack = new ArrayList<>();
+        ans[1][1] = pink;
+        stack.add(new int[]{1, 1});
+        int[][] steps = {{2, 0}, {-2, 0}, {0, 2}, {0, -2}};
+        while (!stack.isEmpty()) {
+            int[] at = stack.get(stack.size() - 1);
+            int first = rnd.nextInt(4);
+            boolean carved = false;
+            for (int k = 0; k < 4 && !carved; k+=1) {
+                int[] d = steps[(first + k) % 4];
+                int x = at[0] + d[0], y = at[1] + d[1];
+                if (x > 0 && y > 0 && x < n - 1 && y < n - 1 && ans[x][y] == wall) {
+                    ans[at[0] + d[0] / 2][at[1] + d[1] / 2] = pink;
+                    ans[x][y] = pink;
+                    stack.add(new int[]{x, y});
+                    carved = true;
+                }
+            }
+            if (!carved) {stack.remove(stack.size() - 1);}
+        }
+        for (int x = 1; x < n - 1; x+=1) {
+            for (int y = 1; y < n - 1; y+=1) {
+                if (ans[x][y] == wall && (x + y) % 2 == 1 && rnd.nextDouble() < BRAID) {ans[x][y] = pink;}
+            }
+        }
+        // open the middle of the border, so a cyclic board wraps around there
+        ans[0][n / 2] = ans[n - 1][n / 2] = ans[n / 2][0] = ans[n / 2][n - 1] = pink;
+        ans[1][n / 2] = ans[n - 2][n / 2] = ans[n / 2][1] = ans[n / 2][n - 2] = pink;
+
+        ans[1][1] = ans[1][n - 2] = ans[n - 2][1] = ans[n - 2][n - 2] = green;
+        int[] c = start(scenario);
+        ans[c[0]][c[1]] = 0;
+        return ans;
+    }
+
+    /**
+     * @return Pac-Man's start cell {x, y} in the given scenario.
+     */
+    public static int[] start(int scenario) {
+        int m = SIZES[scenario] / 2;
+        return new int[]{m | 1, m | 1};
+    }
+
+    /**
+     * @return the start cells {x, y} of the ghosts in the given scenario: the middles of the four sides, next to the
+     * openings in the border (all of them are free cells of the board).
+     */
+    public static int[][] ghosts(int scenario) {
+        int n = SIZES[scenario];
+        int m = n / 2;
+        int[][] ans = new int[GHOSTS[scenario]][];
+        for (int i = 0; i < ans.length; i+=1) {
+            ans[i] = switch (i % 4) {
+                case 0 -> new int[]{n - 2, m};
+                case 1 -> new int[]{1, m};
+                case 2 -> new int[]{m, n - 2};
+                default -> new int[]{m, 1};
+            };
+        }
+        return ans;
+    }
+
+    /**
+     * Moves (x, y) one step in a PacmanGame direction, like the game does: UP is y+1 and RIGHT is x+1
+     * (the board is [x][y] and is drawn with y growing upwards).
+     * @return the new cell {x, y}, or {x, y} itself if the step hits a wall or leaves a non-cyclic board.
+     */
+    public static int[] step(int[][] board, int x, int y, int dir, boolean cyclic, int wall) {
+        int nx = x, ny = y;
+        switch (dir) {
+            case PacmanGame.UP -> ny += 1;
+            case PacmanGame.DOWN -> ny -= 1;
+            case PacmanGame.LEFT -> nx -= 1;
+            case PacmanGame.RIGHT -> nx += 1;
+            default -> {}
+        }
+        int w = board.length, h = board[0].length;
+        if (cyclic) {
+            nx = (nx + w) % w;
+            ny = (ny + h) % h;
+        }
+        if (nx < 0 || ny < 0 || nx >= w || ny >= h || board[nx][ny] == wall) {return new int[]{x, y};}
+        return new int[]{nx, ny};
+    }
+}
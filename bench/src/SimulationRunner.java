@@ -0,0 +1,242 @@
+import exe.ex3.game.PacManAlgo;
+import exe.ex3.game.PacmanGame;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many games of a PacManAlgo on {@link HeadlessGame}s in parallel and writes the results as CSV.
+ * <p>
+ * Every (scenario, seed, cyclic) combination is one game, played like Ex3Main.play1 (play(), move(algo.move(game)) until
+ * DONE) with a fresh algorithm instance, but without a window or frame sleeps. The games run on a fixed pool of
+ * threads: a game is pure computation that never blocks, so virtual threads would gain nothing, and each pool thread
+ * keeps its MyMap SearchWorkspace (a ThreadLocal) warm from one game to the next.
+ * One CSV row per game is written to out, and one aggregated row per (scenario, cyclic) to the standard output.
+ * </p>
+ * <p>
+ * Usage (every argument is optional):
+ * <pre>
+ *     java -cp out:libs/Ex3_v09e.jar-out.jar SimulationRunner algo=Ex3Algo scenarios=0,1,2,3,4 seeds=100 firstSeed=1
+ *          cyclic=true,false maxSteps=5000 threads=8 out=games.csv
+ * </pre>
+ * </p>
+ */
+public class SimulationRunner {
+
+    /**
+     * The result of one game.
+     */
+    public static final class GameResult {
+        public final int SCENARIO;
+        public final long SEED;
+        public final boolean CYCLIC;
+        public final int SCORE;
+        public final int STEPS;
+        public final int DOTS;
+        public final int KILLS;
+        public final String END;
+        // the per-move decision times of the algorithm, in nanoseconds
+        public final long[] MOVE_NANOS;
+
+        GameResult(int scenario, long seed, boolean cyclic, HeadlessGame game, boolean failed, long[] moveNanos) {
+            this.SCENARIO = scenario;
+            this.SEED = seed;
+            this.CYCLIC = cyclic;
+            this.SCORE = game.getScore();
+            this.STEPS = game.getSteps();
+            this.DOTS = game.getDots();
+            this.KILLS = game.getKills();
+            this.END = failed ? "error" : game.isWon() ? "won" : game.isDead() ? "dead" : "timeout";
+            this.MOVE_NANOS = moveNanos;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+        String algo = GameInfo.ALGO.getClass().getName();
+        int[] scenarios = {0, 1, 2, 3, 4};
+        boolean[] cyclic = {true, false};
+        int seeds = 20, maxSteps = 5000, threads = Runtime.getRuntime().availableProcessors();
+        long firstSeed = GameInfo.RANDOM_SEED;
+        String out = "games.csv";
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq == -1) {throw new IllegalArgumentException("expected key=value, got: " + arg);}
+            String key = arg.substring(0, eq);
+            String value = arg.substring(eq + 1);
+            switch (key) {
+                case "algo" -> algo = value;
+                case "scenarios" -> scenarios = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                case "cyclic" -> {
+                    String[] values = value.split(",");
+                    cyclic = new boolean[values.length];
+                    for (int i = 0; i < values.length; i+=1) {cyclic[i] = Boolean.parseBoolean(values[i]);}
+                }
+                case "seeds" -> seeds = Integer.parseInt(value);
+                case "firstSeed" -> firstSeed = Long.parseLong(value);
+                case "maxSteps" -> maxSteps = Integer.parseInt(value);
+                case "threads" -> threads = Integer.parseInt(value);
+                case "out" -> out = value;
+                default -> throw new IllegalArgumentException("unknown argument: " + key);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<GameResult> results = run(algo, scenarios, firstSeed, seeds, cyclic, maxSteps, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        try (PrintStream games = new PrintStream(Files.newOutputStream(Path.of(out)))) {
+            writeGames(results, games);
+        }
+        writeSummary(results, System.out);
+        System.err.println(String.format(Locale.ROOT, "# %d games in %.1f s on %d threads, per-game rows in %s",
+                results.size(), seconds, threads, out));
+    }
+
+    /**
+     * Plays every (scenario, seed, cyclic) combination on a pool of threads.
+     * @param algo the fully qualified class name of a PacManAlgo with a public no-argument constructor
+     * @return the results, in (scenario, seed, cyclic) order.
+     */
+    public static List<GameResult> run(String algo, int[] scenarios, long firstSeed, int seeds, boolean[] cyclic, int maxSteps, int threads)
+            throws InterruptedException, ExecutionException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<GameResult>> futures = new ArrayList<>();
+            for (int scenario : scenarios) {
+                for (long seed = firstSeed; seed < firstSeed + seeds; seed+=1) {
+                    for (boolean cy : cyclic) {
+                        int sc = scenario;
+                        long sd = seed;
+                        futures.add(pool.submit(() -> play(newAlgo(algo), sc, sd, cy, maxSteps)));
+                    }
+                }
+            }
+            List<GameResult> ans = new ArrayList<>(futures.size());
+            for (Future<GameResult> f : futures) {
+                ans.add(f.get());
+            }
+            return ans;
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Plays one game to its end, timing every decision of the algorithm.
+     * If the algorithm throws, the game ends there and its result is marked "error" (the stack trace is printed).
+     */
+    public static GameResult play(PacManAlgo algo, int scenario, long seed, boolean cyclic, int maxSteps) {
+        HeadlessGame game = new HeadlessGame(scenario, seed, cyclic, maxSteps);
+        long[] nanos = new long[maxSteps];
+        int moves = 0;
+        boolean failed = false;
+        game.play();
+        while (game.getStatus() != PacmanGame.DONE && !failed) {
+            long t = System.nanoTime();
+            try {
+                int dir = algo.move(game);
+                nanos[moves] = System.nanoTime() - t;
+                moves += 1;
+                game.move(dir);
+            }
+            catch (RuntimeException e) {
+                System.err.println("scenario " + scenario + ", seed " + seed + ", cyclic " + cyclic + ": the algorithm failed at step " + game.getSteps());
+                e.printStackTrace();
+                failed = true;
+            }
+        }
+        game.end(-1);
+        return new GameResult(scenario, seed, cyclic, game, failed, Arrays.copyOf(nanos, moves));
+    }
+
+    /**
+     * Writes one CSV row per game.
+     */
+    public static void writeGames(List<GameResult> results, PrintStream out) {
+        out.println("scenario,seed,cyclic,end,score,steps,dots,kills,move_mean_us,move_p50_us,move_p99_us,move_max_us");
+        for (GameResult r : results) {
+            long[] sorted = r.MOVE_NANOS.clone();
+            Arrays.sort(sorted);
+            out.println(String.format(Locale.ROOT, "%d,%d,%b,%s,%d,%d,%d,%d,%.2f,%.2f,%.2f,%.2f",
+                    r.SCENARIO, r.SEED, r.CYCLIC, r.END, r.SCORE, r.STEPS, r.DOTS, r.KILLS,
+                    mean(sorted) / 1e3, percentile(sorted, 0.5) / 1e3, percentile(sorted, 0.99) / 1e3, percentile(sorted, 1) / 1e3));
+        }
+    }
+
+    /**
+     * Writes one CSV row per (scenario, cyclic): the number of games, how they ended, the mean and min/max score,
+     * the mean game length and the move latency percentiles over all the moves of those games.
+     */
+    public static void writeSummary(List<GameResult> results, PrintStream out) {
+        Map<String, List<GameResult>> groups = new LinkedHashMap<>();
+        for (GameResult r : results) {
+            groups.computeIfAbsent(r.SCENARIO + "," + r.CYCLIC, k -> new ArrayList<>()).add(r);
+        }
+        out.println("scenario,cyclic,games,won,dead,timeout,error,score_mean,score_min,score_max,steps_mean,moves,move_mean_us,move_p50_us,move_p99_us,move_max_us");
+        for (Map.Entry<String, List<GameResult>> e : groups.entrySet()) {
+            List<GameResult> g = e.getValue();
+            int won = 0, dead = 0, timeout = 0, error = 0, min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            long score = 0, steps = 0, moves = 0;
+            for (GameResult r : g) {
+                switch (r.END) {
+                    case "won" -> won += 1;
+                    case "dead" -> dead += 1;
+                    case "error" -> error += 1;
+                    default -> timeout += 1;
+                }
+                score += r.SCORE;
+                steps += r.STEPS;
+                moves += r.MOVE_NANOS.length;
+                min = Math.min(min, r.SCORE);
+                max = Math.max(max, r.SCORE);
+            }
+            long[] all = new long[(int) moves];
+            int at = 0;
+            for (GameResult r : g) {
+                System.arraycopy(r.MOVE_NANOS, 0, all, at, r.MOVE_NANOS.length);
+                at += r.MOVE_NANOS.length;
+            }
+            Arrays.sort(all);
+            out.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%.1f,%d,%d,%.1f,%d,%.2f,%.2f,%.2f,%.2f",
+                    e.getKey(), g.size(), won, dead, timeout, error, (double) score / g.size(), min, max, (double) steps / g.size(), moves,
+                    mean(all) / 1e3, percentile(all, 0.5) / 1e3, percentile(all, 0.99) / 1e3, percentile(all, 1) / 1e3));
+        }
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private static PacManAlgo newAlgo(String name) {
+        try {
+            return (PacManAlgo) Class.forName(name).getDeclaredConstructor().newInstance();
+        }
+        catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("can't create the algorithm " + name, e);
+        }
+    }
+
+    private static double mean(long[] a) {
+        if (a.length == 0) {return 0;}
+        double sum = 0;
+        for (long v : a) {sum += v;}
+        return sum / a.length;
+    }
+
+    // nearest-rank percentile of a sorted array (0 for an empty one)
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {return 0;}
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,186 @@
+import Classes.Interfaces.Pixel2D;
+import Classes.MapQuery;
+import Classes.MyMap;
+import exe.ex3.game.Game;
+
+/**
+ * A deadline-aware move planner for Ex3Algo, working in refinement stages:
+ * <ol>
+ *     <li>a safe immediate move: a walkable neighbour that no dangerous ghost can reach within one tick;</li>
+ *     <li>the first step towards the nearest pink pellet (green once the pink ones are gone), if that step is safe;</li>
+ *     <li>a ghost-avoidance lookahead: every move sequence of up to DEPTH steps is checked against the danger map,
+ *     and the first step of the sequence that survives longest and eats the most pellets is taken.</li>
+ * </ol>
+ * Every stage starts only if the deadline has not passed, and stage 3 also checks it while it searches;
+ * when time runs out the answer of the last finished stage is returned. So a slow machine still moves in time,
+ * and a fast one gets the lookahead on every move.
+ * <p>
+ * The ghosts are seen only through a {@link DangerMap}, which accounts for their eatable timers, so every safety check
+ * is O(1) per cell. The planner keeps nothing between moves besides the stage statistics.
+ * </p>
+ */
+public class AnytimePlanner {
+
+    /** The stage that produced the last answer. */
+    public static final int STAGE_SAFE = 1, STAGE_PELLET = 2, STAGE_LOOKAHEAD = 3;
+
+    // the game direction of every MyMap neighbour direction (MyMap.DIR_UP ... MyMap.DIR_RIGHT)
+    private static final int[] GAME_DIRS = {Game.UP, Game.DOWN, Game.LEFT, Game.RIGHT};
+    private static final int PINK = 3;
+    private static final int GREEN = 5;
+    // the lookahead checks the deadline once per this many expanded cells
+    private static final int CHECK_EVERY = 256;
+
+    private final int DEPTH;
+    private final int[] NB = new int[MyMap.NEIGHBOURS];
+    // one neighbour buffer per lookahead step, so the search allocates nothing
+    private final int[][] STEP_NB;
+    private final long[] STAGES = new long[STAGE_LOOKAHEAD + 1];
+    private int LAST_STAGE = 0;
+    private long DEADLINE;
+    private int EXPANDED;
+    private boolean TIMED_OUT;
+
+    /**
+     * @param depth the number of steps the lookahead (stage 3) looks ahead
+     */
+    public AnytimePlanner(int depth) {
+        this.DEPTH = depth;
+        this.STEP_NB = new int[depth + 1][MyMap.NEIGHBOURS];
+    }
+
+    /**
+     * Plans Pac-Man's next move.
+     * @param board the board
+     * @param query the distance query around Pac-Man's position (on board, avoiding obs)
+     * @param pm Pac-Man's position
+     * @param danger the ghost-danger map of this tick
+     * @param obs the wall color
+     * @param deadline the System.nanoTime() by which the answer is needed
+     * @return a game direction (Game.UP ...), or Game.STAY if Pac-Man can't move at all.
+     */
+    public int plan(MyMap board, MapQuery query, Pixel2D pm, DangerMap danger, int obs, long deadline) {
+        int start = board.cellId(pm.getX(), pm.getY());
+
+        // stage 1: a safe neighbour, preferring one with a pellet
+        int ans = Game.STAY;
+        int best = -1;
+        board.neighbours(start, this.NB);
+        for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+            int n = this.NB[d];
+            if (n == -1 || board.getPixel(board.cellX(n), board.cellY(n)) == obs) {continue;}
+            int score = (isSafe(danger, n) ? 2 : 0) + (isPellet(board, n) ? 1 : 0);
+            if (score > best) {
+                best = score;
+                ans = GAME_DIRS[d];
+            }
+        }
+        this.LAST_STAGE = STAGE_SAFE;
+        if (ans == Game.STAY || System.nanoTime() >= deadline) {return this.done(ans);}
+
+        // stage 2: the first step to the nearest pink pellet (or green one, once no pink is left), if it is safe
+        int toPellet = -1;
+        Pixel2D target = query.nearest(PINK);
+        if (target == null) {target = query.nearest(GREEN);}
+        if (target != null) {
+            Pixel2D[] path = query.path(target);
+            if (path != null && path.length > 1) {
+                int next = board.cellId(path[1].getX(), path[1].getY());
+                toPellet = this.directionTo(board, start, next);
+                if (toPellet != -1 && isSafe(danger, next)) {
+                    ans = GAME_DIRS[toPellet];
+                    this.LAST_STAGE = STAGE_PELLET;
+                }
+            }
+        }
+        if (!danger.hasGhosts() || System.nanoTime() >= deadline) {return this.done(ans);}
+
+        // stage 3: lookahead against the danger map; only used if every first step was searched in time
+        this.DEADLINE = deadline;
+        this.EXPANDED = 0;
+        this.TIMED_OUT = false;
+        long bestValue = Long.MIN_VALUE;
+        int bestDir = -1;
+        int[] first = this.STEP_NB[0];
+        board.neighbours(start, first);
+        for (int d = 0; d < MyMap.NEIGHBOURS && !this.TIMED_OUT; d+=1) {
+            int n = first[d];
+            if (n == -1 || board.getPixel(board.cellX(n), board.cellY(n)) == obs) {continue;}
+            // surviving a step is worth more than all the pellets of a sequence; heading for the nearest pellet breaks ties
+            long value = this.search(board, danger, n, start, 1, obs) * 2 + (d == toPellet ? 1 : 0);
+            if (value > bestValue) {
+                bestValue = value;
+                bestDir = d;
+            }
+        }
+        if (!this.TIMED_OUT && bestDir != -1) {
+            ans = GAME_DIRS[bestDir];
+            this.LAST_STAGE = STAGE_LOOKAHEAD;
+        }
+        return this.done(ans);
+    }
+
+    /**
+     * @return the stage that produced the last answer (STAGE_SAFE, STAGE_PELLET or STAGE_LOOKAHEAD), 0 before the first plan.
+     */
+    public int getLastStage() {return this.LAST_STAGE;}
+
+    /**
+     * @return the number of answers produced by the given stage so far.
+     */
+    public long getStageCount(int stage) {return this.STAGES[stage];}
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private int done(int ans) {
+        this.STAGES[this.LAST_STAGE] += 1;
+        return ans;
+    }
+
+    // safe iff no dangerous ghost is on the cell or can step on it in the next tick
+    private static boolean isSafe(DangerMap danger, int cell) {return danger.danger(cell) > 1;}
+
+    private static boolean isPellet(MyMap board, int cell) {
+        int v = board.getPixel(board.cellX(cell), board.cellY(cell));
+        return v == PINK || v == GREEN;
+    }
+
+    // the MyMap direction from cell to its neighbour next, or -1 if they are not neighbours
+    private int directionTo(MyMap board, int cell, int next) {
+        board.neighbours(cell, this.NB);
+        for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+            if (this.NB[d] == next) {return d;}
+        }
+        return -1;
+    }
+
+    /**
+     * The value of reaching cell at step t (coming from prev): a cell is survived iff no ghost can be dangerous there
+     * within t ticks. The value counts the steps survived (times the pellets bound, so surviving longer always wins)
+     * plus the pellets eaten along the best continuation, which steps straight back only out of a dead end.
+     */
+    private long search(MyMap board, DangerMap danger, int cell, int prev, int t, int obs) {
+        if (danger.danger(cell) <= t) {return 0;}
+        long pellets = isPellet(board, cell) ? 1 : 0;
+        long here = (long) (this.DEPTH + 1) + pellets;
+        if (t == this.DEPTH) {return here;}
+        this.EXPANDED += 1;
+        if (this.EXPANDED % CHECK_EVERY == 0 && System.nanoTime() >= this.DEADLINE) {
+            this.TIMED_OUT = true;
+            return here;
+        }
+        int[] nb = this.STEP_NB[t];
+        board.neighbours(cell, nb);
+        long best = 0;
+        boolean deadEnd = true;
+        for (int d = 0; d < MyMap.NEIGHBOURS && !this.TIMED_OUT; d+=1) {
+            int n = nb[d];
+            if (n == -1 || n == prev || board.getPixel(board.cellX(n), board.cellY(n)) == obs) {continue;}
+            deadEnd = false;
+            best = Math.max(best, this.search(board, danger, n, cell, t + 1, obs));
+        }
+        // the only way out of a dead end is back
+        if (deadEnd && prev != -1 && !this.TIMED_OUT) {best = this.search(board, danger, prev, cell, t + 1, obs);}
+        return here + best;
+    }
+}
@@ -0,0 +1,155 @@
+package Classes;
+
+import Classes.Interfaces.Map2D;
+import Classes.Interfaces.Pixel2D;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * A labeling of the 4-connected components of a map, where two neighbouring cells are connected iff they have the same key
+ * (the same color for MyMap.components(), or both walkable / both obstacles for MyMap.components(obsColor)).
+ * <p>
+ * The labeling is a union-find over row strips: each strip is united on its own in parallel on the common ForkJoin pool
+ * (a strip only links cells inside it, so the strips never touch the same entries), then the strip borders and the
+ * cyclic wrap are united sequentially. Roots are always linked under the smaller cell, so a last row-major pass resolves
+ * every cell to a compact component id (0..getCount()-1, numbered by the components' first cells).
+ * Afterwards sameComponent(a,b) is O(1).
+ * </p>
+ */
+public class ComponentLabels {
+
+    // below this many cells the labeling runs as a single strip on the calling thread
+    private static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    private final int W;
+    private final int H;
+    private final boolean CYCLIC;
+    private final int[] LABEL;
+    private final int COUNT;
+
+    /**
+     * Labels the components of the given row-major keys.
+     * @param keys the key of every cell (y*W+x)
+     * @param w the map width
+     * @param h the map height
+     * @param cyclic true iff the map wraps around its edges
+     */
+    ComponentLabels(int[] keys, int w, int h, boolean cyclic) {
+        this.W = w;
+        this.H = h;
+        this.CYCLIC = cyclic;
+        int[] parent = new int[keys.length];
+
+        int strips = keys.length < PARALLEL_THRESHOLD ? 1 : Math.min(h, 4 * ForkJoinPool.getCommonPoolParallelism());
+        int rowsPerStrip = (h + strips - 1) / strips;
+        IntStream range = IntStream.range(0, strips);
+        (strips > 1 ? range.parallel() : range).forEach(strip -> {
+            int from = strip * rowsPerStrip;
+            int to = Math.min(h, from + rowsPerStrip);
+            for (int i = from * w; i < to * w; i+=1) {
+                parent[i] = i;
+            }
+            for (int y = from; y < to; y+=1) {
+                this.uniteRow(parent, keys, y);
+                if (y > from) {
+                    this.uniteRows(parent, keys, y - 1, y);
+                }
+            }
+        });
+        for (int strip = 1; strip < strips; strip+=1) {
+            int y = strip * rowsPerStrip;
+            if (y < h) {
+                this.uniteRows(parent, keys, y - 1, y);
+            }
+        }
+        if (cyclic && h > 1) {
+            this.uniteRows(parent, keys, h - 1, 0);
+        }
+
+        // every cell points to a smaller (or its own) cell, so one pass in row-major order resolves all the labels,
+        // numbering the components by their smallest cell
+        int count = 0;
+        this.LABEL = new int[keys.length];
+        for (int i = 0; i < keys.length; i+=1) {
+            if (parent[i] == i) {
+                this.LABEL[i] = count;
+                count += 1;
+            }
+            else {
+                this.LABEL[i] = this.LABEL[parent[i]];
+            }
+        }
+        this.COUNT = count;
+    }
+
+    /**
+     * @return the number of components.
+     */
+    public int getCount() {return this.COUNT;}
+
+    /**
+     * @return the component id (0..getCount()-1) of the cell (x,y).
+     */
+    public int getLabel(int x, int y) {return this.LABEL[y * this.W + x];}
+
+    /**
+     * A wrapper for getLabel(x, y).
+     */
+    public int getLabel(Pixel2D p) {return this.getLabel(p.getX(), p.getY());}
+
+    /**
+     * @return true iff a and b are in the same component, i.e. connected through cells of the same key.
+     */
+    public boolean sameComponent(Pixel2D a, Pixel2D b) {return this.getLabel(a) == this.getLabel(b);}
+
+    /**
+     * @return a new map holding the component id of every cell.
+     */
+    public Map2D toMap() {
+        MyMap ans = new MyMap(this.W, this.H, 0, this.CYCLIC);
+        for (int y = 0; y < this.H; y+=1) {
+            for (int x = 0; x < this.W; x+=1) {
+                ans.setPixel(x, y, this.getLabel(x, y));
+            }
+        }
+        return ans;
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private void uniteRow(int[] parent, int[] keys, int y) {
+        int row = y * this.W;
+        for (int x = 1; x < this.W; x+=1) {
+            if (keys[row + x] == keys[row + x - 1]) {union(parent, row + x, row + x - 1);}
+        }
+        if (this.CYCLIC && this.W > 1 && keys[row] == keys[row + this.W - 1]) {
+            union(parent, row, row + this.W - 1);
+        }
+    }
+
+    private void uniteRows(int[] parent, int[] keys, int y1, int y2) {
+        int row1 = y1 * this.W;
+        int row2 = y2 * this.W;
+        for (int x = 0; x < this.W; x+=1) {
+            if (keys[row1 + x] == keys[row2 + x]) {union(parent, row1 + x, row2 + x);}
+        }
+    }
+
+    // links the larger root under the smaller one, so parent[i] <= i always holds
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra < rb) {parent[rb] = ra;}
+        else if (rb < ra) {parent[ra] = rb;}
+    }
+
+    // find with path halving, which keeps parent[i] <= i
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+}
@@ -0,0 +1,91 @@
+package Classes;
+
+import Classes.Interfaces.Map2D;
+import Classes.Interfaces.Pixel2D;
+
+/**
+ * The result of a (multi-source) BFS sweep over a MyMap.
+ * <p>
+ * For every cell it holds the number of steps to the nearest source, the index (in the sources array)
+ * of that source and the neighbouring cell the sweep came from. Unreachable cells have distance -1 and source -1.
+ * Cells are indexed row-major (y*W+x), like in MyMap.
+ * </p>
+ */
+public class DistanceField {
+
+    private final MyMap OWNER;
+    private final int W;
+    private final int H;
+    private final boolean CYCLIC;
+    private final int[] DIST;
+    private final int[] SOURCE;
+    private final int[] PREV;
+
+    DistanceField(MyMap owner, int[] dist, int[] source, int[] prev) {
+        this.OWNER = owner;
+        this.W = owner.getWidth();
+        this.H = owner.getHeight();
+        this.CYCLIC = owner.isCyclic();
+        this.DIST = dist;
+        this.SOURCE = source;
+        this.PREV = prev;
+    }
+
+    /**
+     * @return the width of the swept map.
+     */
+    public int getWidth() {return this.W;}
+
+    /**
+     * @return the height of the swept map.
+     */
+    public int getHeight() {return this.H;}
+
+    /**
+     * @return the number of steps from (x,y) to the nearest source, or -1 if no source can be reached.
+     */
+    public int getDistance(int x, int y) {return this.DIST[y * this.W + x];}
+
+    /**
+     * A wrapper for getDistance(x, y).
+     */
+    public int getDistance(Pixel2D p) {return this.getDistance(p.getX(), p.getY());}
+
+    /**
+     * @return the index of the source nearest to (x,y), or -1 if no source can be reached.
+     */
+    public int getSource(int x, int y) {return this.SOURCE[y * this.W + x];}
+
+    /**
+     * A wrapper for getSource(x, y).
+     */
+    public int getSource(Pixel2D p) {return this.getSource(p.getX(), p.getY());}
+
+    /**
+     * Returns the shortest path from the nearest source to p (source first, p last),
+     * the same layout MyMap.shortestPath returns, built from the map's canonical pixels. Returns null if p is unreachable.
+     */
+    public Pixel2D[] pathTo(Pixel2D p) {
+        int at = p.getY() * this.W + p.getX();
+        if (this.DIST[at] == -1) {return null;}
+        Pixel2D[] ans = new Pixel2D[this.DIST[at] + 1];
+        for (int i = ans.length - 1; i >= 0; i-=1) {
+            ans[i] = this.OWNER.pixel(at % this.W, at / this.W);
+            at = this.PREV[at];
+        }
+        return ans;
+    }
+
+    /**
+     * @return a new map with the distance of every cell (-1 for unreachable), in the allDistance format.
+     */
+    public Map2D toMap() {
+        MyMap ans = new MyMap(this.W, this.H, -1, this.CYCLIC);
+        for (int y = 0; y < this.H; y+=1) {
+            for (int x = 0; x < this.W; x+=1) {
+                ans.setPixel(x, y, this.getDistance(x, y));
+            }
+        }
+        return ans;
+    }
+}
@@ -0,0 +1,217 @@
+package Classes;
+
+import Classes.Interfaces.Pixel2D;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * An all-pairs shortest-distance index over the walkable (not obsColor) cells of a map.
+ * <p>
+ * The index depends only on which cells are obstacles (and on the size and cyclic flag), so in a game where the walls
+ * never change it is built once and then answers distance(a,b) in O(1) and nextHop(a,b) in O(4) for the whole game.
+ * Walkable cells are renumbered 0..n-1 and every source keeps a char[] row of n distances (2 bytes per pair),
+ * so an index costs about 2*n*n bytes. Built indices are cached by the hash of their obstacle mask, see {@link #forMap}.
+ * </p>
+ */
+public class DistanceIndex {
+
+    private static final char UNREACHABLE = Character.MAX_VALUE;
+    private static final int CACHE_SIZE = 4;
+    private static final Map<Long, DistanceIndex> CACHE = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, DistanceIndex> eldest) {return size() > CACHE_SIZE;}
+    };
+
+    private final int W;
+    private final int H;
+    private final boolean CYCLIC;
+    private final long KEY;
+    // cell (y*W+x) -> compact index, -1 for obstacles
+    private final int[] INDEX_OF;
+    // compact index -> cell
+    private final int[] CELL_OF;
+    // the compact neighbours of every compact index, 4 slots (MyMap.DIR_*) per index, -1 for a missing one
+    private final int[] ADJ;
+    private final char[][] DIST;
+    private final long BUILD_NANOS;
+
+    private DistanceIndex(MyMap map, int obsColor, long key) {
+        long start = System.nanoTime();
+        this.W = map.getWidth();
+        this.H = map.getHeight();
+        this.CYCLIC = map.isCyclic();
+        this.KEY = key;
+        this.INDEX_OF = new int[this.W * this.H];
+        int n = 0;
+        for (int cell = 0; cell < this.INDEX_OF.length; cell+=1) {
+            this.INDEX_OF[cell] = map.getPixel(cell % this.W, cell / this.W) == obsColor ? -1 : n++;
+        }
+        this.CELL_OF = new int[n];
+        for (int cell = 0; cell < this.INDEX_OF.length; cell+=1) {
+            if (this.INDEX_OF[cell] != -1) {this.CELL_OF[this.INDEX_OF[cell]] = cell;}
+        }
+
+        // the compact adjacency list is shared by all the n BFS sweeps, and kept for nextHop
+        int[] adj = new int[MyMap.NEIGHBOURS * n];
+        int[] nb = new int[MyMap.NEIGHBOURS];
+        for (int i = 0; i < n; i+=1) {
+            map.neighbours(this.CELL_OF[i], nb);
+            for (int k = 0; k < MyMap.NEIGHBOURS; k+=1) {
+                adj[MyMap.NEIGHBOURS * i + k] = nb[k] == -1 ? -1 : this.INDEX_OF[nb[k]];
+            }
+        }
+        this.ADJ = adj;
+        this.DIST = new char[n][];
+        int[] queue = new int[n];
+        for (int s = 0; s < n; s+=1) {
+            char[] row = new char[n];
+            Arrays.fill(row, UNREACHABLE);
+            int head = 0, tail = 0;
+            row[s] = 0;
+            queue[tail++] = s;
+            while (head < tail) {
+                int node = queue[head++];
+                char d = (char) Math.min(row[node] + 1, UNREACHABLE - 1);
+                for (int k = MyMap.NEIGHBOURS * node; k < MyMap.NEIGHBOURS * (node + 1); k+=1) {
+                    int next = adj[k];
+                    if (next != -1 && row[next] == UNREACHABLE) {
+                        row[next] = d;
+                        queue[tail++] = next;
+                    }
+                }
+            }
+            this.DIST[s] = row;
+        }
+        this.BUILD_NANOS = System.nanoTime() - start;
+    }
+
+    /**
+     * Returns the index of the map's obstacle layout, building it only if no index with the same layout is cached.
+     * @param map the map
+     * @param obsColor the color representing obstacles
+     * @param maxBytes the memory budget of a new index; if the layout needs more, nothing is built
+     * @return the index, or null if it would not fit in maxBytes.
+     */
+    public static DistanceIndex forMap(MyMap map, int obsColor, long maxBytes) {
+        long key = maskHash(map, obsColor);
+        synchronized (CACHE) {
+            DistanceIndex ans = CACHE.get(key);
+            if (ans != null && ans.matches(map, obsColor)) {return ans;}
+        }
+        long walkable = 0;
+        for (int y = 0; y < map.getHeight(); y+=1) {
+            for (int x = 0; x < map.getWidth(); x+=1) {
+                if (map.getPixel(x, y) != obsColor) {walkable += 1;}
+            }
+        }
+        if (estimateBytes(walkable, map.getWidth() * (long) map.getHeight()) > maxBytes) {return null;}
+        DistanceIndex ans = new DistanceIndex(map, obsColor, key);
+        synchronized (CACHE) {
+            CACHE.put(key, ans);
+        }
+        return ans;
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of the obstacle mask (which cells are obsColor) together with the size and the cyclic flag.
+     */
+    public static long maskHash(MyMap map, int obsColor) {
+        long hash = 0xcbf29ce484222325L;
+        hash = (hash ^ map.getWidth()) * 0x100000001b3L;
+        hash = (hash ^ map.getHeight()) * 0x100000001b3L;
+        hash = (hash ^ (map.isCyclic() ? 1 : 0)) * 0x100000001b3L;
+        long word = 0;
+        int bits = 0;
+        for (int y = 0; y < map.getHeight(); y+=1) {
+            for (int x = 0; x < map.getWidth(); x+=1) {
+                word = (word << 1) | (map.getPixel(x, y) == obsColor ? 1 : 0);
+                bits += 1;
+                if (bits == 64) {
+                    hash = (hash ^ word) * 0x100000001b3L;
+                    word = 0;
+                    bits = 0;
+                }
+            }
+        }
+        return (hash ^ word) * 0x100000001b3L;
+    }
+
+    /**
+     * @return true iff this index was built for the same size, cyclic flag and obstacle mask as map.
+     */
+    public boolean matches(MyMap map, int obsColor) {
+        if (map.getWidth() != this.W || map.getHeight() != this.H || map.isCyclic() != this.CYCLIC) {return false;}
+        for (int cell = 0; cell < this.INDEX_OF.length; cell+=1) {
+            boolean obstacle = map.getPixel(cell % this.W, cell / this.W) == obsColor;
+            if (obstacle != (this.INDEX_OF[cell] == -1)) {return false;}
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of steps between a and b, or -1 if either is an obstacle or b can't be reached from a.
+     */
+    public int distance(Pixel2D a, Pixel2D b) {return this.distance(a.getY() * this.W + a.getX(), b.getY() * this.W + b.getX());}
+
+    /**
+     * A cell-id version of distance(a, b), for callers that already work on MyMap cell ids (y*W+x).
+     */
+    public int distance(int a, int b) {
+        int i = this.INDEX_OF[a];
+        int j = this.INDEX_OF[b];
+        if (i == -1 || j == -1 || this.DIST[i][j] == UNREACHABLE) {return -1;}
+        return this.DIST[i][j];
+    }
+
+    /**
+     * Returns the neighbour of the cell a that is one step closer to the cell b (the first step of a shortest path
+     * from a to b), trying the neighbours in MyMap.DIR_* order. Cells are MyMap cell ids (y*W+x).
+     * @return the neighbour's cell id, a itself if a equals b, or -1 if b can't be reached from a.
+     */
+    public int nextHop(int a, int b) {
+        int d = this.distance(a, b);
+        if (d <= 0) {return d == 0 ? a : -1;}
+        int i = this.INDEX_OF[a];
+        int j = this.INDEX_OF[b];
+        for (int k = MyMap.NEIGHBOURS * i; k < MyMap.NEIGHBOURS * (i + 1); k+=1) {
+            int next = this.ADJ[k];
+            if (next != -1 && this.DIST[next][j] == d - 1) {return this.CELL_OF[next];}
+        }
+        return -1;
+    }
+
+    /**
+     * @return the number of walkable cells (sources) in this index.
+     */
+    public int size() {return this.CELL_OF.length;}
+
+    /**
+     * @return the obstacle-mask hash this index is cached under.
+     */
+    public long getKey() {return this.KEY;}
+
+    /**
+     * @return how long building this index took, in nanoseconds.
+     */
+    public long getBuildNanos() {return this.BUILD_NANOS;}
+
+    /**
+     * @return the approximate heap footprint of this index, in bytes.
+     */
+    public long getMemoryBytes() {return estimateBytes(this.CELL_OF.length, this.INDEX_OF.length);}
+
+    @Override
+    public String toString() {
+        return "DistanceIndex " + this.W + "x" + this.H + ", " + this.size() + " cells, "
+                + (this.getMemoryBytes() / 1024) + " KB, built in " + (this.BUILD_NANOS / 1_000_000.0) + " ms";
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // the char rows (with their array headers), the row references, the two cell maps and the adjacency list
+    private static long estimateBytes(long walkable, long cells) {
+        return walkable * (2 * walkable + 16) + 8 * walkable + 4 * walkable + 4 * cells + 4L * MyMap.NEIGHBOURS * walkable;
+    }
+}
@@ -4,8 +4,8 @@ import Classes.Interfaces.Pixel2D;
 
 public class Index2D implements Pixel2D {
 
-    private int X = 0;
-    private int Y = 0;
+    private final int X;
+    private final int Y;
 
     public Index2D(int w, int h) {
         X = w;
@@ -15,11 +15,31 @@ public class Index2D implements Pixel2D {
         X = other.getX();
         Y = other.getY();
     }
+    /**
+     * Parses the "a,b" format of the game positions, where a is the y coordinate and b is the x coordinate
+     * (any fields after b are ignored). The string is scanned in place, without splitting it.
+     */
     public Index2D(String string) {
-        String[] string_list = string.split(",");
-        int x = Integer.parseInt(string_list[1]);
-        int y = Integer.parseInt(string_list[0]);
-        this(x,y);
+        this(parseX(string), parseY(string));
+    }
+
+    /**
+     * @return the x coordinate of an "a,b" game position (the second field).
+     */
+    public static int parseX(CharSequence s) {
+        int comma = indexOf(s, ',', 0);
+        if (comma == -1) {throw new NumberFormatException("Missing ',' in " + s);}
+        int end = indexOf(s, ',', comma + 1);
+        return parseInt(s, comma + 1, end == -1 ? s.length() : end);
+    }
+
+    /**
+     * @return the y coordinate of an "a,b" game position (the first field).
+     */
+    public static int parseY(CharSequence s) {
+        int comma = indexOf(s, ',', 0);
+        if (comma == -1) {throw new NumberFormatException("Missing ',' in " + s);}
+        return parseInt(s, 0, comma);
     }
 
 
@@ -64,4 +84,19 @@ public class Index2D implements Pixel2D {
         return result;
 
     }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private static int indexOf(CharSequence s, char c, int from) {
+        for (int i = from; i < s.length(); i+=1) {
+            if (s.charAt(i) == c) {return i;}
+        }
+        return -1;
+    }
+
+    private static int parseInt(CharSequence s, int from, int to) {
+        while (from < to && s.charAt(from) == ' ') {from += 1;}
+        while (to > from && s.charAt(to - 1) == ' ') {to -= 1;}
+        return Integer.parseInt(s, from, to, 10);
+    }
 }
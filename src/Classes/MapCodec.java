@@ -0,0 +1,321 @@
+package Classes;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * A versioned binary format for {@link MyMap}, read and written through NIO channels or byte buffers.
+ * <p>
+ * Format (version 1, little-endian):
+ * <pre>
+ *     header (19 bytes): MAGIC (4 bytes, "MMAP"), VERSION (1 byte), encoding (1 byte, RAW=0 or RLE=1),
+ *                        flags (1 byte, bit 0: cyclic), W (int32), H (int32), payload length in bytes (int32)
+ *     RAW payload:       the W*H cells as int32, in row-major order (cell y*W+x)
+ *     RLE payload:       the palette (a varint count, then every distinct cell value as a zigzag varint, ascending),
+ *                        then the row-major cells as runs of one value, each a varint token (run-1) &lt;&lt; B | i,
+ *                        where i is the value's palette index and B the bits needed for an index
+ * </pre>
+ * A maze is a few colors in long runs, so a run of up to 2^(7-B) cells is one byte and an RLE map is a small fraction
+ * of its RAW size (let alone of its default Java serialization); RAW is for maps of noise, and needs no decoding.
+ * The payload length lets a reader take exactly one map from a channel that carries more data after it.
+ * </p>
+ * <p>
+ * Any map an int[] can hold is valid, including an empty (0-cell) one, as long as its payload fits in MAX_PAYLOAD
+ * bytes (a RAW map of up to about 536M cells, an RLE maze of any size); encode rejects the others and decode never
+ * sees them. A reader allocates nothing a corrupt or hostile header asks for: a RAW payload must be exactly 4*W*H
+ * bytes, the runs of an RLE payload must cover exactly W*H cells before the cells are allocated, and a payload read
+ * from a channel only grows with the bytes that actually arrive.
+ * </p>
+ */
+public final class MapCodec {
+
+    /** The cell encodings. */
+    public enum Encoding {
+        /** Every cell as a little-endian int32. */
+        RAW,
+        /** Runs of equal cells over a palette of the map's values. */
+        RLE
+    }
+
+    /** The first bytes of every encoded map ("MMAP"). */
+    public static final int MAGIC = 0x50414D4D;
+    /** The format version this codec writes (and the only one it reads). */
+    public static final int VERSION = 1;
+    /** The size of the header, in bytes. */
+    public static final int HEADER_BYTES = 19;
+    /** The largest payload an encoded map may have, so that the whole map fits in one byte array. */
+    public static final int MAX_PAYLOAD = Integer.MAX_VALUE - 8 - HEADER_BYTES;
+    // the most cells an int[] can hold
+    private static final int MAX_CELLS = Integer.MAX_VALUE - 8;
+    private static final int CYCLIC_FLAG = 1;
+    // the palette size up to which rle() collects the palette from the runs
+    private static final int MAX_RUN_PALETTE = 256;
+    // the first allocation for a payload read from a channel, which then doubles as the bytes arrive
+    private static final int READ_CHUNK = 1 << 16;
+
+    private MapCodec() {}
+
+    /**
+     * Encodes map into a new buffer.
+     * @return a little-endian buffer holding the encoded map, positioned at its start.
+     * @throws IllegalArgumentException if the encoded map would be larger than MAX_PAYLOAD bytes
+     */
+    public static ByteBuffer encode(MyMap map, Encoding encoding) {
+        int[] cells = map.cells();
+        ByteBuffer payload = encoding == Encoding.RAW ? raw(cells) : rle(cells);
+        ByteBuffer ans = ByteBuffer.allocate(HEADER_BYTES + payload.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+        ans.putInt(MAGIC);
+        ans.put((byte) VERSION);
+        ans.put((byte) encoding.ordinal());
+        ans.put((byte) (map.isCyclic() ? CYCLIC_FLAG : 0));
+        ans.putInt(map.getWidth());
+        ans.putInt(map.getHeight());
+        ans.putInt(payload.remaining());
+        ans.put(payload);
+        return ans.flip();
+    }
+
+    /**
+     * Decodes one map from buf, starting at its position and leaving it just after the map.
+     * @throws IOException if buf does not hold a whole map in a format this codec reads
+     */
+    public static MyMap decode(ByteBuffer buf) throws IOException {
+        ByteBuffer in = buf.slice().order(ByteOrder.LITTLE_ENDIAN);
+        if (in.remaining() < HEADER_BYTES) {throw new EOFException("Truncated map header");}
+        Header header = header(in);
+        if (in.remaining() < header.PAYLOAD) {throw new EOFException("Truncated map");}
+        ByteBuffer payload = in.slice().limit(header.PAYLOAD).order(ByteOrder.LITTLE_ENDIAN);
+        MyMap ans = decode(header, payload);
+        buf.position(buf.position() + HEADER_BYTES + header.PAYLOAD);
+        return ans;
+    }
+
+    /**
+     * Writes map to ch (the whole encoded map, however many writes the channel needs).
+     */
+    public static void write(MyMap map, Encoding encoding, WritableByteChannel ch) throws IOException {
+        ByteBuffer buf = encode(map, encoding);
+        while (buf.hasRemaining()) {ch.write(buf);}
+    }
+
+    /**
+     * Reads one map from ch, consuming exactly its bytes.
+     * @throws IOException if ch can't be read, ends before the map does, or holds no map in a format this codec reads
+     */
+    public static MyMap read(ReadableByteChannel ch) throws IOException {
+        ByteBuffer head = readFully(ch, ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN));
+        Header header = header(head);
+        return decode(header, readPayload(ch, header.PAYLOAD));
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private static final class Header {
+        private final Encoding ENCODING;
+        private final boolean CYCLIC;
+        private final int W;
+        private final int H;
+        private final int PAYLOAD;
+
+        private Header(Encoding encoding, boolean cyclic, int w, int h, int payload) {
+            this.ENCODING = encoding;
+            this.CYCLIC = cyclic;
+            this.W = w;
+            this.H = h;
+            this.PAYLOAD = payload;
+        }
+    }
+
+    // reads and checks the header at the position of in
+    private static Header header(ByteBuffer in) throws IOException {
+        if (in.getInt() != MAGIC) {throw new IOException("Not an encoded map");}
+        int version = in.get() & 0xFF;
+        if (version != VERSION) {throw new IOException("Unsupported map version " + version);}
+        int encoding = in.get() & 0xFF;
+        if (encoding >= Encoding.values().length) {throw new IOException("Unknown map encoding " + encoding);}
+        boolean cyclic = (in.get() & CYCLIC_FLAG) != 0;
+        int w = in.getInt(), h = in.getInt(), payload = in.getInt();
+        long cells = (long) w * h;
+        // RAW is 4 bytes per cell; an RLE palette value takes at most 5 bytes and a run token at most 10
+        // (an empty map is an empty palette, one byte)
+        long maxPayload = encoding == Encoding.RAW.ordinal() ? 4 * cells : 5 + 15 * cells;
+        long minPayload = encoding == Encoding.RAW.ordinal() ? 4 * cells : cells == 0 ? 1 : 3;
+        if (w < 0 || h < 0 || cells > MAX_CELLS || payload < minPayload || payload > Math.min(maxPayload, MAX_PAYLOAD)) {
+            throw new IOException("Corrupt map header: " + w + "x" + h + ", " + payload + " bytes");
+        }
+        return new Header(Encoding.values()[encoding], cyclic, w, h, payload);
+    }
+
+    private static MyMap decode(Header header, ByteBuffer payload) throws IOException {
+        int[] cells;
+        try {
+            if (header.ENCODING == Encoding.RAW) {
+                // header() checked the payload is exactly W*H cells
+                cells = new int[header.W * header.H];
+                payload.asIntBuffer().get(cells);
+            }
+            else {cells = unrle(payload, header.W * header.H);}
+        }
+        catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("Corrupt map: the cells end early", e);
+        }
+        return new MyMap(header.W, header.H, cells, header.CYCLIC);
+    }
+
+    private static ByteBuffer raw(int[] cells) {
+        checkPayload(4L * cells.length);
+        ByteBuffer ans = ByteBuffer.allocate(4 * cells.length).order(ByteOrder.LITTLE_ENDIAN);
+        ans.asIntBuffer().put(cells);
+        return ans;
+    }
+
+    private static ByteBuffer rle(int[] cells) {
+        // the palette is collected run by run, so a maze of long runs costs one comparison per cell;
+        // a map of many values (noise) sorts a copy of its cells instead
+        int[] palette = new int[0];
+        int runs = 0;
+        for (int i = 0; i < cells.length; i+=1) {
+            if (i > 0 && cells[i] == cells[i - 1]) {continue;}
+            runs += 1;
+            if (palette == null) {continue;}
+            int at = Arrays.binarySearch(palette, cells[i]);
+            if (at >= 0) {continue;}
+            if (palette.length == MAX_RUN_PALETTE) {
+                palette = null;
+                continue;
+            }
+            at = -at - 1;
+            int[] grown = new int[palette.length + 1];
+            System.arraycopy(palette, 0, grown, 0, at);
+            System.arraycopy(palette, at, grown, at + 1, palette.length - at);
+            grown[at] = cells[i];
+            palette = grown;
+        }
+        if (palette == null) {
+            int[] sorted = cells.clone();
+            Arrays.sort(sorted);
+            int n = 0;
+            for (int i = 0; i < sorted.length; i+=1) {
+                if (i == 0 || sorted[i] != sorted[i - 1]) {sorted[n++] = sorted[i];}
+            }
+            palette = Arrays.copyOf(sorted, n);
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(palette.length - 1, 0));
+        // a value is at most 5 bytes and a token at most as long as the largest possible one; most maps need a small
+        // fraction of this, and only a huge map of many runs needs its exact size counted
+        long size = 5 + 5L * palette.length + (long) varintBytes(((long) cells.length << bits) | palette.length) * runs;
+        if (size > MAX_PAYLOAD) {size = rleBytes(cells, palette, bits);}
+        checkPayload(size);
+        ByteBuffer ans = ByteBuffer.allocate((int) size).order(ByteOrder.LITTLE_ENDIAN);
+        putVarint(ans, palette.length);
+        for (int v : palette) {putVarint(ans, ((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL);}
+        int i = 0;
+        while (i < cells.length) {
+            int v = cells[i];
+            int run = 1;
+            while (i + run < cells.length && cells[i + run] == v) {run += 1;}
+            putVarint(ans, ((long) (run - 1) << bits) | Arrays.binarySearch(palette, v));
+            i += run;
+        }
+        return ans.flip();
+    }
+
+    // decodes the RLE payload of a map of the given number of cells
+    private static int[] unrle(ByteBuffer in, int cells) throws IOException {
+        long size = getVarint(in);
+        // every palette value takes at least one byte, and only an empty map has an empty palette
+        if (size > cells || size > in.remaining() || (size == 0) != (cells == 0)) {
+            throw new IOException("Corrupt map: a palette of " + size + " values");
+        }
+        int[] palette = new int[(int) size];
+        for (int i = 0; i < palette.length; i+=1) {
+            int z = (int) getVarint(in);
+            palette[i] = (z >>> 1) ^ -(z & 1);
+        }
+        int bits = 32 - Integer.numberOfLeadingZeros(Math.max(palette.length - 1, 0));
+        long mask = (1L << bits) - 1;
+        // the runs are checked to cover exactly the cells before the cells are allocated, so a wrong W or H fails here
+        int runs = in.position();
+        int at = 0;
+        while (at < cells) {
+            long token = getVarint(in);
+            long run = (token >>> bits) + 1;
+            if ((token & mask) >= palette.length || run > cells - at) {throw new IOException("Corrupt map: a bad run at cell " + at);}
+            at += (int) run;
+        }
+        if (in.hasRemaining()) {throw new IOException("Corrupt map: " + in.remaining() + " bytes after the cells");}
+        int[] ans = new int[cells];
+        in.position(runs);
+        at = 0;
+        while (at < cells) {
+            long token = getVarint(in);
+            int run = (int) (token >>> bits) + 1;
+            Arrays.fill(ans, at, at + run, palette[(int) (token & mask)]);
+            at += run;
+        }
+        return ans;
+    }
+
+    private static void checkPayload(long size) {
+        if (size > MAX_PAYLOAD) {throw new IllegalArgumentException("An encoded map of " + size + " bytes is larger than " + MAX_PAYLOAD);}
+    }
+
+    // the exact size of the RLE payload of cells
+    private static long rleBytes(int[] cells, int[] palette, int bits) {
+        long ans = varintBytes(palette.length);
+        for (int v : palette) {ans += varintBytes(((v << 1) ^ (v >> 31)) & 0xFFFFFFFFL);}
+        int i = 0;
+        while (i < cells.length) {
+            int v = cells[i];
+            int run = 1;
+            while (i + run < cells.length && cells[i + run] == v) {run += 1;}
+            ans += varintBytes(((long) (run - 1) << bits) | Arrays.binarySearch(palette, v));
+            i += run;
+        }
+        return ans;
+    }
+
+    private static int varintBytes(long v) {return Math.max(1, (64 - Long.numberOfLeadingZeros(v) + 6) / 7);}
+
+    private static void putVarint(ByteBuffer out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    private static long getVarint(ByteBuffer in) throws IOException {
+        long ans = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            ans |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {return ans;}
+        }
+        throw new IOException("Corrupt map: a varint too long");
+    }
+
+    private static ByteBuffer readFully(ReadableByteChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) == -1) {throw new EOFException("The channel ended inside a map");}
+        }
+        return buf.flip();
+    }
+
+    // reads size bytes into a buffer that doubles as they arrive, so a corrupt size costs at most twice the bytes the channel has
+    private static ByteBuffer readPayload(ReadableByteChannel ch, int size) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(Math.min(size, READ_CHUNK));
+        while (buf.position() < size) {
+            if (!buf.hasRemaining()) {
+                buf = ByteBuffer.allocate((int) Math.min(size, 2L * buf.capacity())).put(buf.flip());
+            }
+            if (ch.read(buf) == -1) {throw new EOFException("The channel ended inside a map");}
+        }
+        return buf.flip().order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
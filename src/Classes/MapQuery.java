@@ -0,0 +1,101 @@
+package Classes;
+
+import Classes.Interfaces.Pixel2D;
+
+/**
+ * Answers distance, path and nearest-target questions about a single start pixel of a MyMap.
+ * <p>
+ * The BFS field from the start pixel is computed once, on the first question, and every following question
+ * is answered from it. If the map is modified (see {@link MyMap#getVersion()}) the field is recomputed
+ * on the next question, so a query never answers from a stale map.
+ * </p>
+ */
+public class MapQuery {
+
+    private final MyMap MAP;
+    private final int X;
+    private final int Y;
+    private final int OBS;
+    private DistanceField FIELD = null;
+    private int VERSION = 0;
+
+    /**
+     * Creates a query context for paths starting at start and avoiding obsColor.
+     * Nothing is computed until the first question.
+     * @param map the map to search
+     * @param start the source pixel
+     * @param obsColor the color representing obstacles
+     */
+    public MapQuery(MyMap map, Pixel2D start, int obsColor) {
+        this.MAP = map;
+        this.X = start.getX();
+        this.Y = start.getY();
+        this.OBS = obsColor;
+    }
+
+    /**
+     * @return true iff this query was created for the same map instance, start pixel and obstacle color.
+     */
+    public boolean isFor(MyMap map, Pixel2D start, int obsColor) {
+        return this.MAP == map && this.X == start.getX() && this.Y == start.getY() && this.OBS == obsColor;
+    }
+
+    /**
+     * @return the distance field of the start pixel, recomputed if the map changed since it was last computed.
+     */
+    public DistanceField getField() {
+        if (this.FIELD == null || this.VERSION != this.MAP.getVersion()) {
+            this.FIELD = this.MAP.distanceField(new Pixel2D[]{this.MAP.pixel(this.X, this.Y)}, this.OBS);
+            this.VERSION = this.MAP.getVersion();
+        }
+        return this.FIELD;
+    }
+
+    /**
+     * @return the number of steps from the start to target, or -1 if target is unreachable.
+     */
+    public int distance(Pixel2D target) {return this.getField().getDistance(target);}
+
+    /**
+     * @return the shortest path from the start to target (both included), or null if target is unreachable.
+     */
+    public Pixel2D[] path(Pixel2D target) {return this.getField().pathTo(target);}
+
+    /**
+     * @return the index of the reachable target nearest to the start (the lower index wins ties), or -1 if none is reachable.
+     */
+    public int nearest(Pixel2D[] targets) {
+        DistanceField field = this.getField();
+        int ans = -1;
+        int min_dis = Integer.MAX_VALUE;
+        for (int i = 0; i < targets.length; i+=1) {
+            int dis = field.getDistance(targets[i]);
+            if (dis != -1 && dis < min_dis) {
+                min_dis = dis;
+                ans = i;
+            }
+        }
+        return ans;
+    }
+
+    /**
+     * @return the reachable pixel of the given color nearest to the start (scanning rows first on ties), or null if none is reachable.
+     */
+    public Pixel2D nearest(int color) {
+        DistanceField field = this.getField();
+        Pixel2D ans = null;
+        int min_dis = Integer.MAX_VALUE;
+        for (int y = 0; y < this.MAP.getHeight(); y+=1) {
+            for (int x = 0; x < this.MAP.getWidth(); x+=1) {
+                if (this.MAP.getPixel(x, y) == color) {
+                    int dis = field.getDistance(x, y);
+                    if (dis != -1 && dis < min_dis) {
+                        min_dis = dis;
+                        ans = this.MAP.pixel(x, y);
+                    }
+                }
+            }
+        }
+        return ans;
+    }
+}
@@ -4,14 +4,21 @@ import Classes.Interfaces.Map2D;
 import Classes.Interfaces.Pixel2D;
 
 import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.util.HashMap;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Map;
 
 
 /**
  * This class represents a 2D map (int[w][h]) as a "screen" or a raster matrix or maze over integers.
  * This is the main class needed to be implemented.
+ * The cells are kept in a single flat int[] in row-major order (the pixel (x,y) is at index y*W+x),
+ * so a pixel access is one array dereference. Coordinates passed to getPixel/setPixel must be inside the map.
  *
  * @author boaz.benmoshe
  *
@@ -21,6 +28,19 @@ public class MyMap implements Map2D, Serializable{
     private static final int DEFAULT_W = 10;
     private static final int DEFAULT_H = 10;
     private static final int DEFAULT_V = 0;
+    private static final long serialVersionUID = 2L;
+    // nothing is serialized field by field: writeObject writes the map in the MapCodec format
+    private static final ObjectStreamField[] serialPersistentFields = {};
+    /**
+     * Neighbour directions, named like the game directions Ex3Algo.coordsToDirection maps them to:
+     * UP is x+1, DOWN is x-1, LEFT is y-1 and RIGHT is y+1.
+     * They are also the slots of the array filled by neighbours(cell, out).
+     */
+    public static final int DIR_UP = 0;
+    public static final int DIR_DOWN = 1;
+    public static final int DIR_LEFT = 2;
+    public static final int DIR_RIGHT = 3;
+    public static final int NEIGHBOURS = 4;
 
     /**
      * Default constructor. Creates a map with default dimensions (10x10) and a default value of 0.
@@ -31,8 +51,19 @@ public class MyMap implements Map2D, Serializable{
 
     private int W = 0;
     private int H = 0;
-    private int[][] MAP = new int[W][H];
-    private Boolean CYCLIC = false;
+    private int[] MAP = new int[W * H];
+    private boolean CYCLIC = false;
+    // bumped on every modification, lets caches built on this map (e.g. MapQuery) notice it changed
+    private transient int VERSION = 0;
+    private SearchMode MODE = SearchMode.BFS;
+    // the walkability bitset of the last obstacle color searched, compiled lazily (see walkMask)
+    private transient WalkMask MASK = null;
+    // the walkable/obstacle components of the last components(obsColor) call, with the version and color they were built for
+    private transient ComponentLabels LABELS = null;
+    private transient int LABELS_VERSION = 0;
+    private transient int LABELS_OBS = 0;
+    // the canonical Pixel2D of every cell, created on first use (see pixel)
+    private transient Pixel2D[] PIXELS = null;
 
     /**
      * Creates a new map with specific width (w), height (h), and fills every pixel with the initial value (v).
@@ -40,7 +71,10 @@ public class MyMap implements Map2D, Serializable{
      * @param h height
      * @param v initial value
      */
-    public MyMap(int w, int h, int v, boolean c) {init(w, h, v);}
+    public MyMap(int w, int h, int v, boolean c) {
+        init(w, h, v);
+        this.setCyclic(c);
+    }
 
     /**
      * Creates a square map where both width and height equal size.
@@ -61,21 +95,38 @@ public class MyMap implements Map2D, Serializable{
         this.setCyclic(c);
     }
 
+    /**
+     * Wraps a flat row-major cell array (not copied), for MapCodec.
+     */
+    MyMap(int w, int h, int[] cells, boolean c) {
+        this.W = w;
+        this.H = h;
+        this.MAP = cells;
+        this.CYCLIC = c;
+    }
+
+    /**
+     * Copy constructor - copies the flat cell array of other in a single pass.
+     * @param other the map to copy
+     */
+    private MyMap(MyMap other) {
+        this.W = other.W;
+        this.H = other.H;
+        this.MAP = other.MAP.clone();
+        this.CYCLIC = other.CYCLIC;
+        this.MODE = other.MODE;
+    }
+
     /**
      * Re-initializes the current map. It updates the width and height, creates a new internal 2D array, and sets every cell to the value v.
      */
     @Override
     public void init(int w, int h, int v) {
-        int [][] ans;
         W = w;
         H = h;
-        ans = new int[h][w];
-        for (int y = 0; y < h; y+=1) {
-            for (int x = 0; x < w; x+=1) {
-                ans[y][x] = v;
-            }
-        }
-        copy(ans, w, h);
+        MAP = new int[w * h];
+        Arrays.fill(MAP, v);
+        VERSION += 1;
     }
 
     /**
@@ -84,7 +135,6 @@ public class MyMap implements Map2D, Serializable{
      */
     @Override
     public void init(int[][] arr) {
-        int [][] ans;
         if (arr == null || arr.length == 0) {
             throw new RuntimeException("Null or empty array");
         }
@@ -94,21 +144,64 @@ public class MyMap implements Map2D, Serializable{
             }
         }
         int w = arr[0].length ;
-        W = arr[0].length ;
         int h = arr.length;
-        H = arr.length;
-        ans = new int[h][w];
+        int[] ans = new int[w * h];
         for (int i = 0; i < h; i+=1) {
-            System.arraycopy(arr[i], 0, ans[i], 0, w);
+            System.arraycopy(arr[i], 0, ans, i * w, w);
         }
-        copy(ans, w, h);
+        W = w;
+        H = h;
+        MAP = ans;
+        VERSION += 1;
     }
 
     /**
-     * Returns a reference to the raw underlying 2D integer array (MAP).
+     * Updates the map in place from a 2D array of the same dimensions, writing only the cells whose value changed.
+     * Meant for boards that change in a few cells between two snapshots (e.g. a game board between two ticks):
+     * nothing is allocated besides the returned list, and the version only changes if some cell did.
+     * If arr has different dimensions, or is wider or taller than a PixelsQueue can hold (PixelsQueue.MAX_COORDINATE+1),
+     * the map is re-initialized from it (like init(arr)) and null is returned.
+     * @param arr a 2D int array, indexed [y][x] like init(arr)
+     * @return the changed cells (in row-major order), or null if the whole map was replaced.
+     */
+    public PixelsQueue update(int[][] arr) {
+        if (arr == null || arr.length != this.H || arr[0].length != this.W
+                || this.W > PixelsQueue.MAX_COORDINATE + 1 || this.H > PixelsQueue.MAX_COORDINATE + 1) {
+            init(arr);
+            return null;
+        }
+        // every row is checked before any is written, so a ragged arr leaves the map (and its caches) untouched
+        for (int[] row : arr) {
+            if (row.length != this.W) {
+                throw new RuntimeException("Ragged array");
+            }
+        }
+        PixelsQueue changed = new PixelsQueue();
+        for (int y = 0; y < this.H; y+=1) {
+            int[] row = arr[y];
+            int offset = y * this.W;
+            for (int x = 0; x < this.W; x+=1) {
+                if (this.MAP[offset + x] != row[x]) {
+                    this.MAP[offset + x] = row[x];
+                    changed.enqueue(x, y);
+                }
+            }
+        }
+        if (!changed.isEmpty()) {this.VERSION += 1;}
+        return changed;
+    }
+
+    /**
+     * Returns a deep copy of the map as a 2D integer array (indexed [y][x]).
      */
     @Override
-    public int[][] getMap() {return this.MAP;}
+    public int[][] getMap() {
+        int[][] ans = new int[this.H][this.W];
+        for (int y = 0; y < this.H; y+=1) {
+            System.arraycopy(this.MAP, y * this.W, ans[y], 0, this.W);
+        }
+        return ans;
+    }
 
     /**
      * Returns the width (number of columns) of the map.
@@ -126,7 +219,7 @@ public class MyMap implements Map2D, Serializable{
      * Returns the integer color/value of the specific pixel at coordinates (x, y).
      */
     @Override
-    public int getPixel(int x, int y) {return this.MAP[y][x];}
+    public int getPixel(int x, int y) {return this.MAP[y * this.W + x];}
 
     /**
      * A wrapper for getPixel(x, y); gets the value using a Classes.Interfaces.Pixel2D object instead of separate x/y integers.
@@ -138,13 +231,16 @@ public class MyMap implements Map2D, Serializable{
      * Sets the value (color) of the pixel at coordinates (x, y) to v.
      */
     @Override
-    public void setPixel(int x, int y, int v) {this.MAP[y][x] = v;}
+    public void setPixel(int x, int y, int v) {
+        this.MAP[y * this.W + x] = v;
+        this.VERSION += 1;
+    }
 
     /**
      * A wrapper for setPixel(x, y, v); sets the pixel value using a Classes.Interfaces.Pixel2D object.
      */
     @Override
-    public void setPixel(Pixel2D p, int v) {this.MAP[p.getY()][p.getX()] = v;}
+    public void setPixel(Pixel2D p, int v) {this.setPixel(p.getX(), p.getY(), v);}
 
     /**
      * Checks if a given point p is within the valid boundaries of the map (i.e., x is between 0 and width, y is between 0 and height).
@@ -157,7 +253,105 @@ public class MyMap implements Map2D, Serializable{
     public boolean isCyclic() {return CYCLIC;}
 
     @Override
-    public void setCyclic(boolean cy) {CYCLIC = cy;}
+    public void setCyclic(boolean cy) {
+        CYCLIC = cy;
+        VERSION += 1;
+    }
+
+    /**
+     * Returns a counter that changes whenever the content, the size or the cyclic flag of this map changes.
+     * Two equal versions of the same map instance mean nothing was modified in between.
+     */
+    public int getVersion() {return this.VERSION;}
+
+    /**
+     * Selects the algorithm shortestPath runs (BFS by default). Every mode returns a shortest path.
+     */
+    public void setSearchMode(SearchMode mode) {this.MODE = mode;}
+
+    /**
+     * Returns the algorithm shortestPath currently runs.
+     */
+    public SearchMode getSearchMode() {return this.MODE;}
+
+    /**
+     * Returns the row-major cell id (y*W+x) of the pixel (x,y); the neighbour methods work on these ids.
+     */
+    public int cellId(int x, int y) {return y * this.W + x;}
+
+    /**
+     * @return the x coordinate of a cell id.
+     */
+    public int cellX(int cell) {return cell % this.W;}
+
+    /**
+     * @return the y coordinate of a cell id.
+     */
+    public int cellY(int cell) {return cell / this.W;}
+
+    /**
+     * Returns the canonical Pixel2D of (x,y): the same (immutable) instance is returned for the same coordinate,
+     * so code that has to hand out Pixel2D objects, like the paths of shortestPath, does not allocate a new one every time.
+     * Coordinates outside the map get a fresh Index2D.
+     */
+    public Pixel2D pixel(int x, int y) {
+        if (x < 0 || x >= this.W || y < 0 || y >= this.H) {return new Index2D(x, y);}
+        if (this.PIXELS == null || this.PIXELS.length != this.MAP.length) {
+            this.PIXELS = new Pixel2D[this.MAP.length];
+        }
+        int cell = y * this.W + x;
+        Pixel2D p = this.PIXELS[cell];
+        // the table survives a resize to the same number of cells, so a hit must also match the coordinate
+        if (p == null || p.getX() != x || p.getY() != y) {
+            p = new Index2D(x, y);
+            this.PIXELS[cell] = p;
+        }
+        return p;
+    }
+
+    /**
+     * Returns the id of the neighbour of cell in the direction dir (DIR_UP, DIR_DOWN, DIR_LEFT or DIR_RIGHT),
+     * going around the edges when this map is cyclic. Returns -1 if the neighbour is outside a non cyclic map.
+     */
+    public int neighbour(int cell, int dir) {
+        int size = this.MAP.length;
+        switch (dir) {
+            case DIR_UP:
+                if (cell % this.W != this.W - 1) {return cell + 1;}
+                return this.isCyclic() ? cell + 1 - this.W : -1;
+            case DIR_DOWN:
+                if (cell % this.W != 0) {return cell - 1;}
+                return this.isCyclic() ? cell - 1 + this.W : -1;
+            case DIR_LEFT:
+                if (cell >= this.W) {return cell - this.W;}
+                return this.isCyclic() ? cell - this.W + size : -1;
+            case DIR_RIGHT:
+                if (cell < size - this.W) {return cell + this.W;}
+                return this.isCyclic() ? cell + this.W - size : -1;
+            default:
+                throw new IllegalArgumentException("Unknown direction " + dir);
+        }
+    }
+
+    /**
+     * Writes the ids of the four neighbours of cell into out, indexed by direction (out[DIR_UP] ... out[DIR_RIGHT]),
+     * with -1 for a neighbour outside a non cyclic map. Nothing is allocated, so it can be called for every expanded cell of a search.
+     * @param cell a cell id
+     * @param out an array of at least NEIGHBOURS entries
+     */
+    public void neighbours(int cell, int[] out) {
+        int size = this.MAP.length;
+        boolean cyclic = this.isCyclic();
+        int x = cell % this.W;
+        if (x != this.W - 1) {out[DIR_UP] = cell + 1;}
+        else {out[DIR_UP] = cyclic ? cell + 1 - this.W : -1;}
+        if (x != 0) {out[DIR_DOWN] = cell - 1;}
+        else {out[DIR_DOWN] = cyclic ? cell - 1 + this.W : -1;}
+        if (cell >= this.W) {out[DIR_LEFT] = cell - this.W;}
+        else {out[DIR_LEFT] = cyclic ? cell - this.W + size : -1;}
+        if (cell < size - this.W) {out[DIR_RIGHT] = cell + this.W;}
+        else {out[DIR_RIGHT] = cyclic ? cell + this.W - size : -1;}
+    }
 
     /**
      * Checks if the current map has the exact same width and height as another map p.
@@ -171,9 +365,10 @@ public class MyMap implements Map2D, Serializable{
         if (this.sameDimensions(p)){
             for (int y = 0; y < this.H; y+=1) {
                 for (int x = 0; x < this.W; x+=1) {
-                    this.MAP[y][x] += p.getPixel(x, y);
+                    this.MAP[y * this.W + x] += p.getPixel(x, y);
                 }
             }
+            this.VERSION += 1;
         }
     }
 
@@ -181,11 +376,10 @@ public class MyMap implements Map2D, Serializable{
      * Multiplies every pixel's value in the map by a given number (scalar).
      */
     public void mul(double scalar) {
-        for (int y = 0; y < this.H; y+=1) {
-            for (int x = 0; x < this.W; x+=1) {
-                this.MAP[y][x] = (int)(this.MAP[y][x] * scalar);
-            }
+        for (int i = 0; i < this.MAP.length; i+=1) {
+            this.MAP[i] = (int)(this.MAP[i] * scalar);
         }
+        this.VERSION += 1;
     }
 
     /**
@@ -195,17 +389,18 @@ public class MyMap implements Map2D, Serializable{
     public void rescale(double sx, double sy) {
         int newW = (int)(this.W * sx);
         int newH = (int)(this.H * sy);
-        int [][] newMAP = new int[newH][newW];
+        int [] newMAP = new int[newW * newH];
         for (int y = 0; y < newH; y+=1) {
             for (int x = 0; x < newW; x+=1) {
                 int oldX = (int)(x / sx);
                 int oldY = (int)(y / sy);
-                newMAP[y][x] = this.getPixel(oldX, oldY);
+                newMAP[y * newW + x] = this.getPixel(oldX, oldY);
             }
         }
         this.W = newW;
         this.H = newH;
         this.MAP = newMAP;
+        this.VERSION += 1;
     }
 
     /**
@@ -300,45 +495,81 @@ public class MyMap implements Map2D, Serializable{
     /**
      * Implements a Flood Fill algorithm (like the "paint bucket" tool). It changes the start pixel and all connected pixels
      * of the same original color to new_v. It returns the total number of pixels changed.
+     * This is a scanline (span) fill: every popped seed is grown into the whole horizontal run of the original color around it,
+     * the run is filled at once, and only the first pixel of each run touching it in the rows above and below is pushed as a new seed.
+     * On a cyclic map runs wrap around the left/right edges and the row above row 0 is row H-1 (and vice versa).
      * <a href="https://en.wikipedia.org/wiki/Flood_fill">Wikipedia link</a>
      */
     @Override
     public int fill(Pixel2D start, int new_v) {
         int ans = 0; // making result
-        boolean cyclic = this.isCyclic();
         int startingColor = this.getPixel(start);
         // checking if the starting pixel is already the new color
         if (startingColor == new_v) {return 0;}
-        this.setPixel(start, new_v);
-        ans += 1;
-
-        // using a BFS method to set every pixel that is visited into the new color
-        PixelsContainer q = new PixelsContainer();
-        q.enqueue(start);
-        if (!cyclic) {
-            while (!q.isEmpty()) {
-                Pixel2D node = q.dequeue();
-                PixelsContainer neighbours = this.checkNeighboursNotCyclic(node, startingColor);
-                for (Pixel2D next : neighbours.getList()) {
-                    if (this.getPixel(next) != new_v) {
-                        q.enqueue(next);
-                        this.setPixel(next, new_v);
-                        ans += 1;
-                    }
+        this.VERSION += 1;
+        boolean cyclic = this.isCyclic();
+
+        SearchWorkspace ws = SearchWorkspace.get(this.MAP.length);
+        int[] stack = ws.queue;
+        int top = 0;
+        stack[top++] = start.getY() * this.W + start.getX();
+        while (top > 0) {
+            int seed = stack[--top];
+            // a seed may have been filled by another run since it was pushed
+            if (this.MAP[seed] != startingColor) {continue;}
+            int y = seed / this.W;
+            int row = y * this.W;
+
+            // growing the run to the left and then to the right, at most W pixels in total
+            int left = seed - row;
+            int len = 1;
+            while (len < this.W) {
+                int nx = left - 1;
+                if (nx < 0) {
+                    if (!cyclic) {break;}
+                    nx = this.W - 1;
                 }
+                if (this.MAP[row + nx] != startingColor) {break;}
+                left = nx;
+                len += 1;
+            }
+            int right = seed - row;
+            while (len < this.W) {
+                int nx = right + 1;
+                if (nx >= this.W) {
+                    if (!cyclic) {break;}
+                    nx = 0;
+                }
+                if (this.MAP[row + nx] != startingColor) {break;}
+                right = nx;
+                len += 1;
             }
 
-        }
-        else {
-            while (!q.isEmpty()) {
-                Pixel2D node = q.dequeue();
-                PixelsContainer neighbours = this.checkNeighboursCyclic(node, startingColor);
-                for (Pixel2D next : neighbours.getList()) {
-                    if (this.getPixel(next) != new_v) {
-                        q.enqueue(next);
-                        this.setPixel(next, new_v);
-                        ans += 1;
+            // filling the run
+            for (int i = 0, x = left; i < len; i+=1, x = (x + 1 == this.W) ? 0 : x + 1) {
+                this.MAP[row + x] = new_v;
+            }
+            ans += len;
+
+            // seeding the runs of the original color that touch this run from above and below
+            for (int dy = -1; dy <= 1; dy += 2) {
+                int ny = y + dy;
+                if (ny < 0 || ny >= this.H) {
+                    if (!cyclic) {continue;}
+                    ny = (ny + this.H) % this.H;
+                }
+                int nrow = ny * this.W;
+                boolean inRun = false;
+                for (int i = 0, x = left; i < len; i+=1, x = (x + 1 == this.W) ? 0 : x + 1) {
+                    boolean same = this.MAP[nrow + x] == startingColor;
+                    if (same && !inRun) {
+                        if (top == stack.length) {
+                            stack = Arrays.copyOf(stack, stack.length * 2);
+                            ws.queue = stack;
+                        }
+                        stack[top++] = nrow + x;
                     }
+                    inRun = same;
                 }
             }
         }
@@ -346,69 +577,130 @@ public class MyMap implements Map2D, Serializable{
     }
 
     /**
-     * Finds the shortest path from start to end using Breadth-First Search (BFS).
+     * Finds the shortest path from start to end using Breadth-First Search (BFS), A* or a bidirectional BFS (see setSearchMode).
      * It treats pixels with the value obsColor as obstacles (walls) that cannot be traversed. It returns an array of pixels representing the path.
+     * The search runs on the per-thread SearchWorkspace and stops as soon as end is reached, so the only allocation is the returned path.
      * <a href="https://en.wikipedia.org/wiki/Breadth-first_search">Wikipedia link</a>
+     * <a href="https://en.wikipedia.org/wiki/A*_search_algorithm">Wikipedia link</a>
      */
     @Override
     public Pixel2D[] shortestPath(Pixel2D start, Pixel2D end, int obsColor) {
         Pixel2D[] ans;  // the result.
-
-        Map2D maze = this.preppingMaze(obsColor);
-
-        // checking if there is a way to get from s pixel to e pixel
-        maze.fill(start,1);
-        if (maze.getPixel(end) != 1) {return null;}
-
-        // making a BFS dictionary
-        Map<Pixel2D, Pixel2D> prev = this.solve(start, obsColor);
-
-        // using the dictionary to get from e pixel to s pixel
-        PixelsContainer container = reconstructPath(end, prev);
-        ans = container.getList();
-
+        int s = start.getY() * this.W + start.getX();
+        int e = end.getY() * this.W + end.getX();
+        WalkMask mask = this.walkMask(obsColor);
+        if (!mask.isWalkable(s) || !mask.isWalkable(e)) {return null;}
+        // if the components of this map are already labeled, an unreachable end is answered without searching
+        if (this.LABELS != null && this.LABELS_VERSION == this.VERSION && this.LABELS_OBS == obsColor
+                && !this.LABELS.sameComponent(start, end)) {return null;}
+
+        SearchWorkspace ws = SearchWorkspace.get(this.MAP.length);
+        boolean found = switch (this.MODE) {
+            case A_STAR -> this.aStar(ws, s, e, mask);
+            case BIDIRECTIONAL -> this.bidirectionalBfs(ws, s, e, mask);
+            default -> this.bfs(ws, s, e, mask);
+        };
+        if (!found) {return null;}
+
+        // walking the predecessors from e pixel back to s pixel
+        ans = new Pixel2D[ws.dist[e] + 1];
+        int i = ans.length - 1;
+        for (int at = e; at != -1; at = ws.prev[at]) {
+            ans[i] = this.pixel(at % this.W, at / this.W);
+            i -= 1;
+        }
         return ans;
     }
 
     /**
      * Generates a "distance map". Starting from start, it calculates the distance (number of steps) to every other reachable pixel.
      * Unreachable pixels are set to -1. Reachable pixels are set to their distance from the start point.
+     * The distances are computed in a single BFS sweep over the map, so the whole map costs O(W*H).
      */
     @Override
     public Map2D allDistance(Pixel2D start, int obsColor) {
-        Map2D ans;  // the result.
+        MyMap ans = new MyMap(this.getWidth(), this.getHeight(), -1, this.isCyclic());
 
-        Map2D maze = this.preppingMaze(obsColor);
+        SearchWorkspace ws = SearchWorkspace.get(this.MAP.length);
+        this.bfs(ws, start.getY() * this.W + start.getX(), -1, this.walkMask(obsColor));
+        for (int i = 0; i < ans.MAP.length; i+=1) {
+            if (ws.isVisited(i)) {ans.MAP[i] = ws.dist[i];}
+        }
 
-        // setting every reachable pixel to 1
-        maze.fill(start,1);
+        return ans;
+    }
 
-        // setting every unreachable pixel to -1
-        for (int y = 0; y < this.getHeight(); y+=1) {
-            for (int x = 0; x < this.getWidth(); x+=1) {
-                Pixel2D p = new Index2D(x,y);
-                if (maze.getPixel(p) == 0) {
-                    maze.setPixel(p,-1);
+    /**
+     * Computes, in a single BFS sweep started from all the sources at once, the distance from every pixel to its nearest source
+     * and the index (in sources) of that source. Pixels of obsColor are obstacles; unreachable pixels get distance -1 and source -1.
+     * This replaces running one shortestPath per source when only the nearest one matters.
+     * @param sources the starting points, duplicates are allowed (the lower index wins)
+     * @param obsColor the color representing obstacles
+     * @return the distance, nearest source and predecessor of every pixel.
+     */
+    public DistanceField distanceField(Pixel2D[] sources, int obsColor) {
+        int[] dist = new int[this.MAP.length];
+        int[] source = new int[this.MAP.length];
+        int[] prev = new int[this.MAP.length];
+        Arrays.fill(dist, -1);
+        Arrays.fill(source, -1);
+
+        WalkMask mask = this.walkMask(obsColor);
+        SearchWorkspace ws = SearchWorkspace.get(this.MAP.length);
+        int[] queue = ws.queue;
+        int head = 0, tail = 0;
+        for (int i = 0; i < sources.length; i+=1) {
+            int s = sources[i].getY() * this.W + sources[i].getX();
+            if (dist[s] == -1) {
+                dist[s] = 0;
+                source[s] = i;
+                prev[s] = -1;
+                queue[tail++] = s;
+            }
+        }
+        int[] nb = ws.neighbours;
+        while (head < tail) {
+            int node = queue[head++];
+            this.neighbours(node, nb);
+            for (int k = 0; k < NEIGHBOURS; k+=1) {
+                int n = nb[k];
+                if (n != -1 && dist[n] == -1 && mask.isWalkable(n)) {
+                    dist[n] = dist[node] + 1;
+                    source[n] = source[node];
+                    prev[n] = node;
+                    queue[tail++] = n;
                 }
             }
         }
+        return new DistanceField(this, dist, source, prev);
+    }
 
-        maze.fill(start,0);
+    /**
+     * Labels the 4-connected components of this map, where neighbouring pixels are connected iff they have the same color
+     * (cyclic-aware). The labeling is a parallel union-find on the common ForkJoin pool.
+     * @return the component id of every pixel, with O(1) sameComponent queries.
+     */
+    public ComponentLabels components() {return new ComponentLabels(this.MAP, this.W, this.H, this.isCyclic());}
 
-        ans = new MyMap(maze.getMap(), maze.isCyclic());
-        // setting every pixel to its distance from the start
-        for (int y = 0; y < this.getHeight(); y+=1) {
-            for (int x = 0; x < this.getWidth(); x+=1) {
-                Pixel2D p = new Index2D(x,y);
-                if (maze.getPixel(p) == 0) {
-                    PixelsContainer path = new PixelsContainer(maze.shortestPath(start, p, -1));
-                    int pathLength = path.getLength();
-                    ans.setPixel(p,pathLength - 1);
-                }
+    /**
+     * Labels the components of the walkable (not obsColor) pixels, i.e. the regions shortestPath can move in,
+     * so that sameComponent(a,b) tells in O(1) whether b is reachable from a (for a walkable a).
+     * The labeling is kept until this map changes, and while it is valid shortestPath uses it to reject unreachable ends without searching.
+     * @param obsColor the color representing obstacles
+     * @return the component id of every pixel (obstacles get components of their own).
+     */
+    public ComponentLabels components(int obsColor) {
+        if (this.LABELS == null || this.LABELS_VERSION != this.VERSION || this.LABELS_OBS != obsColor) {
+            WalkMask mask = this.walkMask(obsColor);
+            int[] keys = new int[this.MAP.length];
+            for (int i = 0; i < keys.length; i+=1) {
+                keys[i] = mask.isWalkable(i) ? 1 : 0;
             }
+            this.LABELS = new ComponentLabels(keys, this.W, this.H, this.isCyclic());
+            this.LABELS_VERSION = this.VERSION;
+            this.LABELS_OBS = obsColor;
         }
-
-        return ans;
+        return this.LABELS;
     }
 
     @Override
@@ -416,12 +708,12 @@ public class MyMap implements Map2D, Serializable{
         StringBuilder sb = new StringBuilder();
         for (int y = 0; y < this.H-1; y+=1) {
             for (int x = 0; x < this.W; x+=1) {
-                sb.append(this.MAP[y][x]).append(' ');
+                sb.append(this.getPixel(x, y)).append(' ');
             }
             sb.append('\n');
         }
         for (int x = 0; x < this.W; x+=1) {
-            sb.append(this.MAP[this.H-1][x]).append(' ');
+            sb.append(this.getPixel(x, this.H-1)).append(' ');
         }
         return sb.toString();
     }
@@ -444,72 +736,214 @@ public class MyMap implements Map2D, Serializable{
 
     ////////////////////// Private Methods ///////////////////////
 
-    private void copy(int[][] ans, int w, int h) {
-        this.MAP = new int[h][w];
-        for (int i = 0; i < ans.length; i+=1) {
-            MAP[i] = new int[ans[i].length];
-            System.arraycopy(ans[i], 0, MAP[i], 0, ans[i].length);
+    // the flat row-major cells themselves (not a copy), for MapCodec
+    int[] cells() {return this.MAP;}
+
+    /**
+     * Serializes the map as its MapCodec RLE encoding (a few bytes per row of a maze instead of 4 per cell),
+     * followed by the search mode.
+     */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        ByteBuffer bytes;
+        try {bytes = MapCodec.encode(this, MapCodec.Encoding.RLE);}
+        catch (IllegalArgumentException e) {throw new IOException("Cannot serialize this map: " + e.getMessage(), e);}
+        out.writeInt(bytes.remaining());
+        out.write(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+        out.writeUTF(this.MODE.name());
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int size = in.readInt();
+        if (size < MapCodec.HEADER_BYTES) {throw new java.io.InvalidObjectException("Corrupt map of " + size + " bytes");}
+        byte[] bytes = in.readNBytes(size);
+        if (bytes.length != size) {throw new java.io.EOFException("Truncated map");}
+        MyMap map = MapCodec.decode(ByteBuffer.wrap(bytes));
+        this.W = map.W;
+        this.H = map.H;
+        this.MAP = map.MAP;
+        this.CYCLIC = map.CYCLIC;
+        try {this.MODE = SearchMode.valueOf(in.readUTF());}
+        catch (IllegalArgumentException e) {throw new java.io.InvalidObjectException("Unknown search mode");}
+    }
+
+    /**
+     * Returns the walkability bitset of this map for obsColor. It is compiled once and reused until the map changes
+     * (see getVersion) or another obstacle color is asked for.
+     */
+    private WalkMask walkMask(int obsColor) {
+        if (this.MASK == null || this.MASK.OBS != obsColor || this.MASK.VERSION != this.VERSION) {
+            this.MASK = new WalkMask(this.MAP, obsColor, this.VERSION);
         }
+        return this.MASK;
     }
 
-    private Map<Pixel2D, Pixel2D> solve(Pixel2D s, int obs) {
-        MyMap maze = new MyMap(this.getMap(), this.isCyclic());
-        
-        for (int y = 0; y < maze.getHeight(); y+=1) {
-            for (int x = 0; x < maze.getWidth(); x+=1) {
-                if (maze.getPixel(x, y) != obs) {
-                    maze.setPixel(x, y, 0);
+    /**
+     * Single source BFS over the walkable cells of mask, using the workspace's queue, marks, dist and prev arrays.
+     * Cells are indexed row-major (y*W+x). The search stops early once target is visited (pass -1 to sweep the whole component).
+     * @return true iff target was reached.
+     */
+    private boolean bfs(SearchWorkspace ws, int s, int target, WalkMask mask) {
+        int[] queue = ws.queue;
+        int[] nb = ws.neighbours;
+        int head = 0, tail = 0;
+
+        ws.visit(s);
+        ws.dist[s] = 0;
+        ws.prev[s] = -1;
+        queue[tail++] = s;
+        while (head < tail) {
+            int node = queue[head++];
+            if (node == target) {return true;}
+            int d = ws.dist[node] + 1;
+            this.neighbours(node, nb);
+            for (int k = 0; k < NEIGHBOURS; k+=1) {
+                int n = nb[k];
+                if (n != -1 && !ws.isVisited(n) && mask.isWalkable(n)) {
+                    ws.visit(n);
+                    ws.dist[n] = d;
+                    ws.prev[n] = node;
+                    queue[tail++] = n;
                 }
             }
         }
+        return false;
+    }
 
-        int v = maze.getPixel(s);
-        boolean cyclic = maze.isCyclic();
-        PixelsContainer q = new PixelsContainer();
-        q.enqueue(s);
-        Map<Pixel2D,Boolean> visited = new HashMap<>();
-        for (int y = 0; y < maze.H; y+=1) {
-            for (int x = 0; x < maze.W; x+=1) {
-                Pixel2D p = new Index2D(x,y);
-                if (maze.getPixel(p) == v) {
-                    visited.put(p, false);
+    /**
+     * A* from s to target over the walkable cells of mask, filling the workspace's dist (g) and prev arrays.
+     * Edge costs are uniform and the heuristic is consistent, so the open list is the workspace's bucket queue and
+     * a cell is final the first time it is popped with an up-to-date f. Stops as soon as target is popped.
+     * @return true iff target was reached.
+     */
+    private boolean aStar(SearchWorkspace ws, int s, int target, WalkMask mask) {
+        int tx = target % this.W;
+        int ty = target / this.W;
+        int[] nb = ws.neighbours;
+
+        ws.visit(s);
+        ws.dist[s] = 0;
+        ws.prev[s] = -1;
+        int f = this.heuristic(s % this.W, s / this.W, tx, ty);
+        ws.openPush(f, s);
+        while (!ws.openIsEmpty()) {
+            int node = ws.openPop(f);
+            if (node == -1) {
+                f += 1;
+                continue;
+            }
+            int x = node % this.W;
+            int y = node / this.W;
+            // skipping entries left behind when a cell was reached again by a shorter route
+            if (ws.dist[node] + this.heuristic(x, y, tx, ty) != f) {continue;}
+            if (node == target) {return true;}
+            int g = ws.dist[node] + 1;
+            this.neighbours(node, nb);
+            for (int k = 0; k < NEIGHBOURS; k+=1) {
+                int n = nb[k];
+                if (n != -1 && mask.isWalkable(n) && (!ws.isVisited(n) || g < ws.dist[n])) {
+                    ws.visit(n);
+                    ws.dist[n] = g;
+                    ws.prev[n] = node;
+                    ws.openPush(g + this.heuristic(n % this.W, n / this.W, tx, ty), n);
                 }
             }
         }
-        visited.replace(s,true);
-
-        Map<Pixel2D,Pixel2D> prev = new HashMap<>();
-        if (!cyclic) {
-            while (!q.isEmpty()){
-                Pixel2D node = q.dequeue();
-                PixelsContainer neighbours = maze.checkNeighboursNotCyclic(node,v);
+        return false;
+    }
 
-                for (Pixel2D next : neighbours.getList()) {
-                    if (!visited.get(next)) {
-                        q.enqueue(next);
-                        visited.put(next, true);
-                        prev.put(next,node);
+    /**
+     * Bidirectional BFS between s and target over the walkable cells of mask.
+     * Each round grows one whole level of the smaller frontier; the first level that touches the other side holds the meeting
+     * points of all the shortest paths, so the best one of that level is kept. The two halves are then linked into the
+     * workspace's dist and prev arrays as if a single search from s had reached target.
+     * @return true iff target was reached.
+     */
+    private boolean bidirectionalBfs(SearchWorkspace ws, int s, int target, WalkMask mask) {
+        ws.visit(s);
+        ws.dist[s] = 0;
+        ws.prev[s] = -1;
+        if (s == target) {return true;}
+        ws.visitBack(target);
+        ws.dist[target] = 0;
+        ws.prev[target] = -1;
+
+        int[] fq = ws.queue;
+        int[] bq = ws.backQueue;
+        int[] nb = ws.neighbours;
+        int fHead = 0, fTail = 0, bHead = 0, bTail = 0;
+        fq[fTail++] = s;
+        bq[bTail++] = target;
+        int best = Integer.MAX_VALUE, meetFront = -1, meetBack = -1;
+        while (fHead < fTail && bHead < bTail) {
+            boolean forward = fTail - fHead <= bTail - bHead;
+            int[] q = forward ? fq : bq;
+            int head = forward ? fHead : bHead;
+            int tail = forward ? fTail : bTail;
+            int levelEnd = tail;
+            while (head < levelEnd) {
+                int node = q[head++];
+                this.neighbours(node, nb);
+                for (int k = 0; k < NEIGHBOURS; k+=1) {
+                    int n = nb[k];
+                    if (n == -1 || !mask.isWalkable(n)) {continue;}
+                    boolean mine = forward ? ws.isVisited(n) : ws.isVisitedBack(n);
+                    boolean theirs = forward ? ws.isVisitedBack(n) : ws.isVisited(n);
+                    if (theirs) {
+                        int len = ws.dist[node] + 1 + ws.dist[n];
+                        if (len < best) {
+                            best = len;
+                            meetFront = forward ? node : n;
+                            meetBack = forward ? n : node;
+                        }
+                    }
+                    else if (!mine) {
+                        if (forward) {ws.visit(n);}
+                        else {ws.visitBack(n);}
+                        ws.dist[n] = ws.dist[node] + 1;
+                        ws.prev[n] = node;
+                        q[tail++] = n;
                     }
                 }
             }
-        }
-        else {
-            while (!q.isEmpty()){
-                Pixel2D node = q.dequeue();
-                PixelsContainer neighbours = maze.checkNeighboursCyclic(node,v);
-
-                for (Pixel2D next : neighbours.getList()) {
-                    if (!visited.get(next)) {
-                        q.enqueue(next);
-                        visited.put(next, true);
-                        prev.put(next,node);
-                    }
+            if (forward) {
+                fHead = head;
+                fTail = tail;
+            }
+            else {
+                bHead = head;
+                bTail = tail;
+            }
+            if (meetFront != -1) {
+                // reversing the target side's links so that prev leads from target back to s
+                int from = meetFront;
+                int d = ws.dist[meetFront] + 1;
+                for (int at = meetBack; at != -1; ) {
+                    int next = ws.prev[at];
+                    ws.prev[at] = from;
+                    ws.dist[at] = d;
+                    from = at;
+                    at = next;
+                    d += 1;
                 }
+                return true;
             }
         }
+        return false;
+    }
 
-
-        return prev;
+    /**
+     * Manhattan distance between (x,y) and (tx,ty), going around the edges when that is shorter on a cyclic map.
+     */
+    private int heuristic(int x, int y, int tx, int ty) {
+        int dx = Math.abs(x - tx);
+        int dy = Math.abs(y - ty);
+        if (this.isCyclic()) {
+            dx = Math.min(dx, this.W - dx);
+            dy = Math.min(dy, this.H - dy);
+        }
+        return dx + dy;
     }
 
     public PixelsContainer checkNeighboursNotCyclic(Pixel2D node, int v) {
@@ -542,48 +976,6 @@ public class MyMap implements Map2D, Serializable{
         return neighbours;
     }
 
-    private PixelsContainer checkNeighboursCyclic(Pixel2D node, int v) {
-        PixelsContainer neighbours = new PixelsContainer();
-
-        // Right
-        Pixel2D rNode = new Index2D(node.getX()+1,node.getY());
-        if (node.getX() == this.getWidth()-1) {
-            rNode = new Index2D(0,node.getY());
-        }
-        if (this.getPixel(rNode) == v) {
-            neighbours.enqueue(rNode);
-        }
-
-        // Left
-        Pixel2D lNode = new Index2D(node.getX()-1,node.getY());
-        if (node.getX() == 0) {
-            lNode = new Index2D(this.getWidth()-1,node.getY());
-        }
-        if (this.getPixel(lNode) == v) {
-            neighbours.enqueue(lNode);
-        }
-
-        // Up
-        Pixel2D uNode = new Index2D(node.getX(),node.getY()+1);
-        if (node.getY() == this.getHeight()-1) {
-            uNode = new Index2D(node.getX(),0);
-        }
-        if (this.getPixel(uNode) == v) {
-            neighbours.enqueue(uNode);
-        }
-
-        // Down
-        Pixel2D dNode = new Index2D(node.getX(),node.getY()-1);
-        if (node.getY() == 0) {
-            dNode = new Index2D(node.getX(),this.getHeight()-1);
-        }
-        if (this.getPixel(dNode) == v) {
-            neighbours.enqueue(dNode);
-        }
-
-        return neighbours;
-    }
-
     public PixelsContainer reconstructPath(Pixel2D e, Map<Pixel2D, Pixel2D> prev){
         PixelsContainer path = new PixelsContainer();
         for (Pixel2D at = e; at != null ; at = prev.get(at)) {
@@ -594,33 +986,4 @@ public class MyMap implements Map2D, Serializable{
 
         return path;
     }
-
-    private Map2D preppingMaze(int obsColor){
-        // making a copy for the maze
-        Map2D maze = new MyMap(this.getMap(), this.isCyclic());
-
-        // setting obsColor to -1
-        if (obsColor != -1) {
-            for (int y = 0; y < this.getHeight(); y+=1) {
-                for (int x = 0; x < this.getWidth(); x+=1) {
-                    Pixel2D p = new Index2D(x,y);
-                    if (maze.getPixel(p) == obsColor) {
-                        maze.setPixel(p,-1);
-                    }
-                }
-            }
-            obsColor = -1;
-        }
-
-        // setting every else pixel to 0
-        for (int y = 0; y < this.getHeight(); y+=1) {
-            for (int x = 0; x < this.getWidth(); x+=1) {
-                Pixel2D p = new Index2D(x,y);
-                if (maze.getPixel(p) != obsColor) {
-                    maze.setPixel(p,0);
-                }
-            }
-        }
-        return maze;
-    }
-}
+}
\ No newline at end of file
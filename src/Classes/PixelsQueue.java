@@ -0,0 +1,222 @@
+package Classes;
+
+import Classes.Interfaces.Pixel2D;
+
+/**
+ * A growable ring-buffer implementation of the Classes.Interfaces.PixelsContainer contract.
+ * <p>
+ * Pixels are stored as packed <code>int</code> coordinates (x in the high 16 bits, y in the low 16 bits)
+ * instead of Classes.Interfaces.Pixel2D objects, so coordinates must be in the range [0,MAX_COORDINATE]
+ * (enqueueing any other pixel throws an IllegalArgumentException).
+ * {@link #enqueue} and {@link #dequeue} are amortized O(1): the buffer only doubles when it is full
+ * and the head just moves forward, nothing is shifted.
+ * </p>
+ */
+public class PixelsQueue implements Classes.Interfaces.PixelsContainer {
+
+    /** The largest x or y coordinate a packed pixel can hold. */
+    public static final int MAX_COORDINATE = 0xFFFF;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] LIST;
+    private int HEAD = 0;
+    private int SIZE = 0;
+
+    /**
+     * Constructs an empty PixelsQueue.
+     */
+    public PixelsQueue() {this(DEFAULT_CAPACITY);}
+
+    /**
+     * Constructs an empty PixelsQueue with room for capacity pixels before it has to grow.
+     *
+     * @param capacity the initial capacity of the internal buffer
+     */
+    public PixelsQueue(int capacity) {
+        this.LIST = new int[Math.max(1, capacity)];
+    }
+
+    /**
+     * Constructs a PixelsQueue holding the given pixels (in order).
+     *
+     * @param list the array of Classes.Interfaces.Pixel2D objects to add
+     */
+    public PixelsQueue(Pixel2D[] list) {
+        this(list.length);
+        for (Pixel2D p : list) {this.enqueue(p);}
+    }
+
+    /**
+     * Packs the coordinate (x,y) into a single int.
+     * @throws IllegalArgumentException if x or y is outside [0,MAX_COORDINATE]
+     */
+    public static int pack(int x, int y) {
+        if (((x | y) & ~MAX_COORDINATE) != 0) {
+            throw new IllegalArgumentException("(" + x + "," + y + ") is outside [0," + MAX_COORDINATE + "]");
+        }
+        return (x << 16) | y;
+    }
+
+    /**
+     * @return the x coordinate of a packed pixel.
+     */
+    public static int unpackX(int p) {return p >>> 16;}
+
+    /**
+     * @return the y coordinate of a packed pixel.
+     */
+    public static int unpackY(int p) {return p & 0xFFFF;}
+
+    /**
+     * Returns a new array with the pixels of this queue, from head to tail.
+     *
+     * @return an array containing all pixels in the container
+     */
+    @Override
+    public Pixel2D[] getList() {
+        Pixel2D[] ans = new Pixel2D[this.SIZE];
+        for (int i = 0; i < this.SIZE; i+=1) {
+            int p = this.get(i);
+            ans[i] = new Index2D(unpackX(p), unpackY(p));
+        }
+        return ans;
+    }
+
+    /**
+     * Returns the current number of elements in the container.
+     *
+     * @return the number of queued pixels
+     */
+    @Override
+    public int getLength() {return this.SIZE;}
+
+    /**
+     * Adds a new pixel to the end of the container.
+     *
+     * @param p the Classes.Interfaces.Pixel2D object to add
+     */
+    @Override
+    public void enqueue(Pixel2D p) {this.enqueue(p.getX(), p.getY());}
+
+    /**
+     * Adds the pixel (x,y) to the end of the container without creating a Classes.Interfaces.Pixel2D.
+     * @throws IllegalArgumentException if x or y is outside [0,MAX_COORDINATE]
+     */
+    public void enqueue(int x, int y) {this.enqueuePacked(pack(x, y));}
+
+    /**
+     * Adds an already packed pixel to the end of the container.
+     */
+    public void enqueuePacked(int p) {
+        if (this.SIZE == this.LIST.length) {this.grow();}
+        this.LIST[(this.HEAD + this.SIZE) % this.LIST.length] = p;
+        this.SIZE += 1;
+    }
+
+    /**
+     * Removes and returns the first pixel in the container.
+     *
+     * @return the pixel that was at the head of the container, or null if empty
+     */
+    @Override
+    public Pixel2D dequeue() {
+        if (this.SIZE == 0) {return null;}
+        int p = this.dequeuePacked();
+        return new Index2D(unpackX(p), unpackY(p));
+    }
+
+    /**
+     * Removes and returns the first pixel in the container in its packed form.
+     *
+     * @throws IndexOutOfBoundsException if the container is empty
+     */
+    public int dequeuePacked() {
+        if (this.SIZE == 0) {throw new IndexOutOfBoundsException("Empty queue");}
+        int p = this.LIST[this.HEAD];
+        this.HEAD = (this.HEAD + 1) % this.LIST.length;
+        this.SIZE -= 1;
+        return p;
+    }
+
+    /**
+     * Returns the pixel at index i (0 is the head) in its packed form, without removing it.
+     *
+     * @throws IndexOutOfBoundsException if i is not in [0,getLength())
+     */
+    public int getPacked(int i) {
+        if (i < 0 || i >= this.SIZE) {throw new IndexOutOfBoundsException("Index " + i + " out of " + this.SIZE);}
+        return this.get(i);
+    }
+
+    /**
+     * Removes and returns the pixel at the specified index.
+     * <p>The elements after i are shifted one place towards the head (O(n)).</p>
+     *
+     * @param i the index of the pixel to remove
+     * @return the pixel that was removed
+     */
+    @Override
+    public Pixel2D dequeue(int i) {
+        if (i < 0 || i >= this.SIZE) {throw new IndexOutOfBoundsException("Index " + i + " out of " + this.SIZE);}
+        int p = this.get(i);
+        for (int j = i; j < this.SIZE - 1; j+=1) {
+            this.set(j, this.get(j + 1));
+        }
+        this.SIZE -= 1;
+        return new Index2D(unpackX(p), unpackY(p));
+    }
+
+    /**
+     * Checks if the container is empty.
+     *
+     * @return true if there are no queued pixels, false otherwise
+     */
+    @Override
+    public Boolean isEmpty() {return this.SIZE == 0;}
+
+    /**
+     * Removes all the pixels, keeping the allocated buffer for reuse.
+     */
+    public void clear() {
+        this.HEAD = 0;
+        this.SIZE = 0;
+    }
+
+    /**
+     * Reverses the order of elements in the container in-place.
+     */
+    @Override
+    public void reverse() {
+        for (int i = 0; i < this.SIZE / 2; i+=1) {
+            int temp = this.get(i);
+            this.set(i, this.get(this.SIZE - (i+1)));
+            this.set(this.SIZE - (i+1), temp);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder ans = new StringBuilder();
+        for (int i = 0; i < this.SIZE; i+=1) {
+            int p = this.get(i);
+            ans.append('(').append(unpackX(p)).append(',').append(unpackY(p)).append(')');
+            ans.append(",");
+        }
+        return ans.toString();
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private int get(int i) {return this.LIST[(this.HEAD + i) % this.LIST.length];}
+
+    private void set(int i, int p) {this.LIST[(this.HEAD + i) % this.LIST.length] = p;}
+
+    private void grow() {
+        int[] newList = new int[this.LIST.length * 2];
+        for (int i = 0; i < this.SIZE; i+=1) {
+            newList[i] = this.get(i);
+        }
+        this.LIST = newList;
+        this.HEAD = 0;
+    }
+}
@@ -0,0 +1,14 @@
+package Classes;
+
+/**
+ * The algorithms MyMap.shortestPath can run (see MyMap.setSearchMode).
+ * All of them return a shortest path; they differ in how many cells they expand on the way.
+ */
+public enum SearchMode {
+    /** Breadth-First Search from the start, stops when the end is reached. */
+    BFS,
+    /** A* with a Manhattan heuristic (wrap-around aware on cyclic maps) and a bucket open list. */
+    A_STAR,
+    /** Two BFS frontiers, one from each end, always growing the smaller one until they meet. */
+    BIDIRECTIONAL
+}
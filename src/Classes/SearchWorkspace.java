@@ -0,0 +1,114 @@
+package Classes;
+
+import java.util.Arrays;
+
+/**
+ * Reusable scratch memory for the BFS searches of MyMap.
+ * <p>
+ * Every thread owns one workspace (see {@link #get(int)}), which only grows when a bigger map is searched.
+ * Instead of clearing the visited table before each search, a search bumps the epoch and a cell counts as
+ * visited only if its mark equals the current epoch, so starting a new search is O(1).
+ * A bidirectional search marks the cells reached from the target with epoch+1 instead.
+ * </p>
+ */
+final class SearchWorkspace {
+
+    private static final ThreadLocal<SearchWorkspace> LOCAL = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    /** FIFO of row-major cell indices. */
+    int[] queue = new int[0];
+    /** A second FIFO, for the search growing back from the target in a bidirectional search. */
+    int[] backQueue = new int[0];
+    /** The cell each visited cell was reached from (-1 for the source). */
+    int[] prev = new int[0];
+    /** Number of steps from the source of each visited cell. */
+    int[] dist = new int[0];
+    /** Scratch for MyMap.neighbours, one slot per direction. */
+    final int[] neighbours = new int[MyMap.NEIGHBOURS];
+
+    private int[] mark = new int[0];
+    private int epoch = 0;
+
+    // the A* open list: uniform edge costs and a consistent heuristic keep every open f value within [f, f+2]
+    // of the bucket being expanded, so three LIFO buckets indexed by f%3 are enough
+    private final int[][] bucket = {new int[16], new int[16], new int[16]};
+    private final int[] bucketSize = new int[3];
+
+    private SearchWorkspace() {}
+
+    /**
+     * Returns the workspace of the calling thread, ready for a new search over a map of the given number of cells.
+     * @param cells W*H of the searched map
+     */
+    static SearchWorkspace get(int cells) {
+        SearchWorkspace ws = LOCAL.get();
+        ws.reset(cells);
+        return ws;
+    }
+
+    /**
+     * @return true iff the cell was visited in the current search.
+     */
+    boolean isVisited(int cell) {return this.mark[cell] == this.epoch;}
+
+    /**
+     * Marks the cell as visited in the current search.
+     */
+    void visit(int cell) {this.mark[cell] = this.epoch;}
+
+    /**
+     * @return true iff the cell was visited from the target side in the current (bidirectional) search.
+     */
+    boolean isVisitedBack(int cell) {return this.mark[cell] == this.epoch + 1;}
+
+    /**
+     * Marks the cell as visited from the target side in the current (bidirectional) search.
+     */
+    void visitBack(int cell) {this.mark[cell] = this.epoch + 1;}
+
+    /**
+     * Pushes cell into the open-list bucket of the given f value.
+     */
+    void openPush(int f, int cell) {
+        int b = f % 3;
+        if (this.bucketSize[b] == this.bucket[b].length) {
+            this.bucket[b] = Arrays.copyOf(this.bucket[b], this.bucket[b].length * 2);
+        }
+        this.bucket[b][this.bucketSize[b]] = cell;
+        this.bucketSize[b] += 1;
+    }
+
+    /**
+     * Pops the most recently pushed cell of the bucket of the given f value, or returns -1 if that bucket is empty.
+     */
+    int openPop(int f) {
+        int b = f % 3;
+        if (this.bucketSize[b] == 0) {return -1;}
+        this.bucketSize[b] -= 1;
+        return this.bucket[b][this.bucketSize[b]];
+    }
+
+    /**
+     * @return true iff the three open-list buckets are empty.
+     */
+    boolean openIsEmpty() {return this.bucketSize[0] == 0 && this.bucketSize[1] == 0 && this.bucketSize[2] == 0;}
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private void reset(int cells) {
+        if (this.mark.length < cells) {
+            this.queue = new int[cells];
+            this.backQueue = new int[cells];
+            this.prev = new int[cells];
+            this.dist = new int[cells];
+            this.mark = new int[cells];
+            this.epoch = 0;
+        }
+        this.epoch += 2;
+        Arrays.fill(this.bucketSize, 0);
+        if (this.epoch >= Integer.MAX_VALUE - 1) {
+            Arrays.fill(this.mark, 0);
+            this.epoch = 1;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package Classes;
+
+/**
+ * A walkability bitset of a MyMap: one bit per cell, set iff the cell is not the obstacle color.
+ * <p>
+ * Bits follow the row-major cell index of MyMap (cell y*W+x is bit y*W+x), so the rows are packed one after the other
+ * into a single long[] and a search can test a neighbour with a single word access instead of reading its int color.
+ * A mask is a snapshot: it remembers the map version and obstacle color it was compiled for (see MyMap.walkMask).
+ * </p>
+ */
+final class WalkMask {
+
+    final int OBS;
+    final int VERSION;
+    private final long[] BITS;
+
+    /**
+     * Compiles the mask of the given cells in one pass.
+     * @param cells the row-major cells of the map
+     * @param obsColor the color representing obstacles
+     * @param version the version of the map the cells were taken from
+     */
+    WalkMask(int[] cells, int obsColor, int version) {
+        this.OBS = obsColor;
+        this.VERSION = version;
+        this.BITS = new long[(cells.length + 63) >>> 6];
+        for (int i = 0; i < cells.length; i+=1) {
+            if (cells[i] != obsColor) {
+                this.BITS[i >>> 6] |= 1L << i;
+            }
+        }
+    }
+
+    /**
+     * @return true iff the cell (a row-major index) is not an obstacle.
+     */
+    boolean isWalkable(int cell) {return (this.BITS[cell >>> 6] & (1L << cell)) != 0;}
+}
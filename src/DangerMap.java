@@ -0,0 +1,149 @@
+import Classes.DistanceField;
+import Classes.DistanceIndex;
+import Classes.Interfaces.Pixel2D;
+import Classes.MyMap;
+import Classes.PixelsQueue;
+
+import java.util.BitSet;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A ghost-danger influence map: for every cell of the board, the number of ticks until some ghost can be there
+ * while it is dangerous.
+ * <p>
+ * A ghost that is d steps from a cell can be there after d ticks, but while it is eatable it is no danger, so a ghost
+ * that stays eatable for e more ticks threatens the cell after max(d, e) ticks; the danger of a cell is the minimum of
+ * that over all the ghosts. The walls never change during a game, so the step distances come from a DistanceIndex that
+ * is built once for the wall layout: after that, update() only checks the cells the board changed since the last tick
+ * against the walls it keeps, and stores the ghosts' cells and timers (O(changed cells + ghosts) per tick, however the
+ * ghosts moved), and danger(cell) is O(ghosts), i.e. O(1) per candidate move. Only a new layout costs an O(W*H) pass.
+ * The index is built in the background (on the common ForkJoin pool, from a copy of the board), so a new layout
+ * does not stall a move. Until it is ready, or if the board is too large for an index, every ghost gets a BFS field
+ * of its own instead, and only the fields of the ghosts that moved since the last update are recomputed.
+ * </p>
+ */
+public class DangerMap {
+
+    /** The danger of a cell no ghost can reach. */
+    public static final int SAFE = Integer.MAX_VALUE;
+    // the largest all-pairs index the map builds (bigger boards use per-ghost fields)
+    private static final long MAX_INDEX_BYTES = 64L << 20;
+
+    private final double TICK_SECONDS;
+    private MyMap BOARD;
+    private int OBS;
+    private int VERSION;
+    // the wall cells of the layout the distances are for
+    private BitSet WALLS = new BitSet();
+    private DistanceIndex INDEX;
+    private CompletableFuture<DistanceIndex> PENDING;
+    private int[] GHOSTS = new int[0];
+    private int[] EATABLE_TICKS = new int[0];
+    private DistanceField[] FIELDS = new DistanceField[0];
+    private long FIELD_UPDATES = 0;
+
+    /**
+     * @param tickMillis the length of a tick (GameInfo.DT), which turns the ghosts' eatable times into ticks
+     */
+    public DangerMap(int tickMillis) {this.TICK_SECONDS = tickMillis / 1000.0;}
+
+    /**
+     * Brings the map up to date with the current tick.
+     * @param board the board (only its walls matter)
+     * @param changed the cells of board changed since the previous update (as MyMap.update returns them), or null if
+     *                that is not known: then a board changed since the previous update is taken as a new layout
+     * @param obs the wall color
+     * @param ghosts the ghosts' positions
+     * @param eatable the remaining time each ghost can be eaten, in seconds (0 or less: dangerous now)
+     */
+    public void update(MyMap board, PixelsQueue changed, int obs, Pixel2D[] ghosts, double[] eatable) {
+        boolean newLayout = this.BOARD != board || this.OBS != obs
+                || board.getVersion() != this.VERSION && this.wallsMoved(board, changed);
+        this.VERSION = board.getVersion();
+        if (newLayout) {
+            this.BOARD = board;
+            this.OBS = obs;
+            this.WALLS = walls(board, obs);
+            this.INDEX = null;
+            MyMap copy = new MyMap(board.getMap(), board.isCyclic());
+            this.PENDING = CompletableFuture.supplyAsync(() -> DistanceIndex.forMap(copy, obs, MAX_INDEX_BYTES));
+        }
+        else if (this.INDEX == null && this.PENDING != null && this.PENDING.isDone()) {
+            // a failed or over-budget build leaves the map on per-ghost fields for good
+            this.INDEX = this.PENDING.exceptionally(e -> null).join();
+            this.PENDING = null;
+        }
+        if (this.GHOSTS.length != ghosts.length) {
+            this.GHOSTS = new int[ghosts.length];
+            this.EATABLE_TICKS = new int[ghosts.length];
+            this.FIELDS = new DistanceField[ghosts.length];
+        }
+        for (int i = 0; i < ghosts.length; i+=1) {
+            int cell = board.cellId(ghosts[i].getX(), ghosts[i].getY());
+            if (this.INDEX == null && (newLayout || this.FIELDS[i] == null || this.GHOSTS[i] != cell)) {
+                this.FIELDS[i] = board.distanceField(new Pixel2D[]{ghosts[i]}, obs);
+                this.FIELD_UPDATES += 1;
+            }
+            this.GHOSTS[i] = cell;
+            this.EATABLE_TICKS[i] = eatable[i] <= 0 ? 0 : (int) Math.ceil(eatable[i] / this.TICK_SECONDS);
+        }
+    }
+
+    /**
+     * @return the number of ticks until a dangerous ghost can be on cell (0 if one is there now), or SAFE if none ever can.
+     */
+    public int danger(int cell) {
+        int ans = SAFE;
+        for (int i = 0; i < this.GHOSTS.length; i+=1) {
+            int d;
+            if (this.INDEX != null) {d = this.INDEX.distance(this.GHOSTS[i], cell);}
+            else {d = this.FIELDS[i].getDistance(this.BOARD.cellX(cell), this.BOARD.cellY(cell));}
+            if (d != -1) {ans = Math.min(ans, Math.max(d, this.EATABLE_TICKS[i]));}
+        }
+        return ans;
+    }
+
+    /**
+     * A wrapper for danger(cell).
+     */
+    public int danger(Pixel2D p) {return this.danger(this.BOARD.cellId(p.getX(), p.getY()));}
+
+    /**
+     * @return true iff there is at least one ghost (eatable or not).
+     */
+    public boolean hasGhosts() {return this.GHOSTS.length > 0;}
+
+    /**
+     * @return true iff the distances come from an all-pairs index (false: from per-ghost BFS fields).
+     */
+    public boolean isIndexed() {return this.INDEX != null;}
+
+    /**
+     * @return the number of per-ghost BFS fields computed so far (0 while the map is indexed).
+     */
+    public long getFieldUpdates() {return this.FIELD_UPDATES;}
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // true unless changed holds every cell changed since the last update and none of them became or stopped being a wall
+    private boolean wallsMoved(MyMap board, PixelsQueue changed) {
+        // MyMap.update bumps the version once; anything else changed the board some other way
+        if (changed == null || board.getVersion() != this.VERSION + 1) {return true;}
+        for (int i = 0; i < changed.getLength(); i+=1) {
+            int p = changed.getPacked(i);
+            int x = PixelsQueue.unpackX(p), y = PixelsQueue.unpackY(p);
+            if ((board.getPixel(x, y) == this.OBS) != this.WALLS.get(board.cellId(x, y))) {return true;}
+        }
+        return false;
+    }
+
+    private static BitSet walls(MyMap board, int obs) {
+        BitSet ans = new BitSet(board.getWidth() * board.getHeight());
+        for (int y = 0; y < board.getHeight(); y+=1) {
+            for (int x = 0; x < board.getWidth(); x+=1) {
+                if (board.getPixel(x, y) == obs) {ans.set(board.cellId(x, y));}
+            }
+        }
+        return ans;
+    }
+}
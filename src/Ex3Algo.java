@@ -1,6 +1,6 @@
-import Classes.Index2D;
 import Classes.Interfaces.Map2D;
 import Classes.Interfaces.Pixel2D;
+import Classes.MapQuery;
 import Classes.MyMap;
 import exe.ex3.game.Game;
 import exe.ex3.game.GhostCL;
@@ -18,6 +18,10 @@ import java.security.spec.RSAOtherPrimeInfo;
  */
 public class Ex3Algo implements PacManAlgo{
 	private int _count;
+    private MapQuery _query;
+    private final GameBoard BOARD = new GameBoard();
+    private final AnytimePlanner _planner = new AnytimePlanner(GameInfo.PLANNER_DEPTH);
+    private final DangerMap _danger = new DangerMap(GameInfo.DT);
 	public Ex3Algo() {_count=0;}
 	@Override
 	/**
@@ -31,25 +35,36 @@ public class Ex3Algo implements PacManAlgo{
 	 * This ia the main method - that you should design, implement and test.
 	 */
 	public int move(PacmanGame game) {
+        long deadline = System.nanoTime() + (long) (GameInfo.DT * GameInfo.PLANNER_BUDGET * 1_000_000);
         int code = 0;
         int[][] board = game.getGame(code);
         boolean isCyclic = game.isCyclic();
-        MyMap board_map = new MyMap(board, isCyclic);
+        MyMap board_map = this.BOARD.update(board, isCyclic);
         int wallColor = Game.getIntColor(Color.BLUE, code);
         String pos = game.getPos(code);
-        Index2D pm = new Index2D(pos);
+        Pixel2D pm = GameBoard.position(board_map, pos);
         GhostCL[] ghosts = game.getGhosts(code);
-        Index2D[] gs = new Index2D[ghosts.length];
+        Pixel2D[] gs = new Pixel2D[ghosts.length];
         for (int i = 0; i < ghosts.length; i+=1) {
-            Index2D g = new Index2D(ghosts[i].getPos(code));
+            Pixel2D g = GameBoard.position(board_map, ghosts[i].getPos(code));
             gs[i] = g;
         }
 		_count++;
 
-        int cg_index = closest_ghost(board_map, pm, gs, wallColor);
+        // every distance/path question of this move is answered from one BFS field around Pac-Man
+        MapQuery query = query(board_map, pm, wallColor);
+        if (GameInfo.ANYTIME_PLANNER) {
+            double[] eatable = new double[ghosts.length];
+            for (int i = 0; i < ghosts.length; i+=1) {
+                eatable[i] = ghosts[i].remainTimeAsEatable(code);
+            }
+            this._danger.update(board_map, this.BOARD.changed(), wallColor, gs, eatable);
+            return this._planner.plan(board_map, query, pm, this._danger, wallColor, deadline);
+        }
+        int cg_index = closest_ghost(query, gs);
         Pixel2D cg = gs[cg_index];
-        int cg_dis = calc_dis(board_map, pm, cg, wallColor);
-        Pixel2D[] cg_path = calc_path(board_map, pm, cg, wallColor);
+        int cg_dis = calc_dis(query, cg);
+        Pixel2D[] cg_path = calc_path(query, cg);
         double eatable = ghosts[cg_index].remainTimeAsEatable(code);
 
         if (this._count > 50) {
@@ -61,7 +76,14 @@ public class Ex3Algo implements PacManAlgo{
                 }
             }
         }
-        return closest_pink(board_map, pm, wallColor);
+        return closest_pink(board_map, query, wallColor);
+    }
+
+    private MapQuery query(MyMap board, Pixel2D pm, int obs) {
+        if (this._query == null || !this._query.isFor(board, pm, obs)) {
+            this._query = new MapQuery(board, pm, obs);
+        }
+        return this._query;
     }
 	private static void printBoard(int[][] b) {
 		for(int y =0;y<b[0].length;y++){
@@ -84,29 +106,14 @@ public class Ex3Algo implements PacManAlgo{
 		return dirs[ind];
 	}
 
-    private static int closest_pink(MyMap board, Pixel2D pm, int obs) {
-        Pixel2D target = null;
-
-        Map2D all_distance_board_map = board.allDistance(pm, obs);
-
-        int min_dis = 1000;
-        for (int y = 0; y < board.getHeight(); y++) {
-            for (int x = 0; x < board.getWidth(); x++) {
-                if (board.getPixel(x,y) == 3){
-                    int dist = all_distance_board_map.getPixel(x,y);
-                    if (dist < min_dis) {
-                        min_dis = dist;
-                        target = new Index2D(x,y);
-                    }
-                }
-            }
-        }
+    private static int closest_pink(MyMap board, MapQuery query, int obs) {
+        Pixel2D target = query.nearest(3);
 
         if (target == null) {
             return randomDir();
         }
 
-        Pixel2D[] path = calc_path(board, pm, target, obs);
+        Pixel2D[] path = calc_path(query, target);
 
         return go(board, path, false, obs);
     }
@@ -207,21 +214,18 @@ public class Ex3Algo implements PacManAlgo{
         };
     }
 
-    private static int closest_ghost(MyMap board, Pixel2D pm, Pixel2D[] gs, int obs) {
-        Pixel2D g = new Index2D(gs[0]);
-        int dis = calc_dis(board, pm, g, obs);
-        int index = 0;
-        for (int i = 1; i < gs.length; i+=1) {
-            g = gs[i];
-            int temp_dis = calc_dis(board, pm, g, obs);
-            if (temp_dis < dis) {
-                dis = temp_dis;
-                index = i;
-            }
+    private static int closest_ghost(MapQuery query, Pixel2D[] gs) {
+        int index = query.nearest(gs);
+        if (index == -1) {
+            return 0;
         }
         return index;
     }
 
-    private static Pixel2D[] calc_path(MyMap board, Pixel2D start, Pixel2D end, int obs) {return board.shortestPath(start, end, obs);}
-    private static int calc_dis(MyMap board, Pixel2D start, Pixel2D end, int obs){return calc_path(board, start, end, obs).length;}
+    private static Pixel2D[] calc_path(MapQuery query, Pixel2D end) {return query.path(end);}
+    private static int calc_dis(MapQuery query, Pixel2D end){
+        int dis = query.distance(end);
+        // the number of pixels in the path (like calc_path(...).length), "infinite" if unreachable
+        return dis == -1 ? Integer.MAX_VALUE : dis + 1;
+    }
 }
\ No newline at end of file
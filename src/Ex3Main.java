@@ -2,6 +2,8 @@ import exe.ex3.game.Game;
 import exe.ex3.game.PacManAlgo;
 import exe.ex3.game.PacmanGame;
 
+import java.nio.file.Path;
+
 /**
  * Ex3, School of Computer Science, Ariel University.
  *
@@ -28,7 +30,11 @@ public class Ex3Main {
     public static void play1() {
     	Game ex3 = new Game();//new Game(level);
     	ex3.init(GameInfo.CASE_SCENARIO, GameInfo.MY_ID, GameInfo.CYCLIC_MODE, GameInfo.RANDOM_SEED, GameInfo.RESOLUTION_NORM, GameInfo.DT, -1);
-        PacManAlgo man = GameInfo.ALGO;
+        PipelinedAlgo pipeline = GameInfo.PIPELINED_PLANNING ? new PipelinedAlgo(GameInfo.ALGO) : null;
+        PacManAlgo man = pipeline != null ? pipeline : GameInfo.ALGO;
+        if (GameInfo.PROFILE_MOVES) {man = new MoveProfiler(man);}
+        GameRecorder recorder = GameInfo.RECORD_GAMES
+                ? GameRecorder.toDirectory(Path.of(GameInfo.RECORD_DIR), GameInfo.CASE_SCENARIO, GameInfo.RANDOM_SEED, GameInfo.DT) : null;
         while(ex3.getStatus()!=PacmanGame.DONE) {
 //            _cmd = ex3.getKeyChar();
 //            if(_cmd !=null && _cmd == ' ') {ex3.play();}
@@ -36,12 +42,24 @@ public class Ex3Main {
 //            	System.out.println("Pacman help: keys: ' '-start, 'w,a,x,d'-directions, all other parameters should be configured via GameInfo.java, ");
 //            }
             ex3.play();
+            long start = System.nanoTime();
             int  dir = man.move(ex3);
+            if (recorder != null) {recorder.record(ex3, dir, System.nanoTime() - start);}
             ex3.move(dir);
 //            String pos = ex3.getPos(0);
 //            System.out.println("Pacman coordinate: "+pos);
         }
         ex3.end(-1);
+        if (man instanceof MoveProfiler profiler) {System.out.println(profiler.summary());}
+        if (recorder != null) {
+            recorder.close();
+            System.out.println("Recorded " + recorder.getTicks() + " ticks in " + recorder.getBytes() + " bytes");
+        }
+        if (GameInfo.ALGO instanceof RolloutAlgo rollouts) {System.out.println(rollouts.summary());}
+        if (pipeline != null) {
+            System.out.println(pipeline.summary());
+            pipeline.close();
+        }
     }
     public static Character getCMD() {return _cmd;}
 }
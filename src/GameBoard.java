@@ -0,0 +1,45 @@
+import Classes.Index2D;
+import Classes.Interfaces.Pixel2D;
+import Classes.MyMap;
+import Classes.PixelsQueue;
+
+/**
+ * The board an algorithm keeps for the whole game: one MyMap, of which every tick only writes the cells that changed
+ * since the previous one, so a query built on it stays valid while neither the board nor Pac-Man moved.
+ */
+class GameBoard {
+
+    private MyMap BOARD;
+    private PixelsQueue CHANGED;
+
+    /**
+     * Brings the kept map up to date with board (creating it on the first call) and returns it.
+     * @param board the game's board
+     * @param isCyclic true iff the board wraps around its edges
+     */
+    MyMap update(int[][] board, boolean isCyclic) {
+        if (this.BOARD == null) {
+            this.BOARD = new MyMap(board, isCyclic);
+            this.CHANGED = null;
+        }
+        else {
+            this.CHANGED = this.BOARD.update(board);
+            if (this.BOARD.isCyclic() != isCyclic) {
+                this.BOARD.setCyclic(isCyclic);
+            }
+        }
+        return this.BOARD;
+    }
+
+    /**
+     * @return the cells the last update changed (see MyMap.update), or null if it created or replaced the map.
+     */
+    PixelsQueue changed() {return this.CHANGED;}
+
+    /**
+     * Parses a game position in place and returns the board's shared pixel for it.
+     */
+    static Pixel2D position(MyMap board, String pos) {return board.pixel(Index2D.parseX(pos), Index2D.parseY(pos));}
+
+    ////////////////////// Private Methods ///////////////////////
+}
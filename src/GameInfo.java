@@ -10,8 +10,20 @@ public class GameInfo {
 	public static final boolean CYCLIC_MODE = true;
 	public static final int DT = 20; // [20,200]
 	public static final double RESOLUTION_NORM = 1.2; // [0.75,1.2]
+	public static final boolean PROFILE_MOVES = true; // time every move against DT and print a summary at the end
+	public static final boolean ANYTIME_PLANNER = false; // Ex3Algo plans in deadline-aware stages (see AnytimePlanner)
+	public static final double PLANNER_BUDGET = 0.5; // the part of DT a move may plan for, (0,1]
+	public static final int PLANNER_DEPTH = 8; // the steps the planner's ghost lookahead looks ahead
+	public static final boolean PIPELINED_PLANNING = false; // plan each move on a background thread one tick ahead (see PipelinedAlgo)
+	public static final long PIPELINE_WAIT_MS = 0; // how long a pipelined move may wait for a late plan before it falls back
+	public static final int ROLLOUT_THREADS = 0; // RolloutAlgo's rollout workers, 0: one per core
+	public static final int ROLLOUT_DEPTH = 24; // the ticks every RolloutAlgo rollout plays
+	public static final boolean RECORD_GAMES = false; // record every tick of the game into RECORD_DIR (see GameRecorder)
+	public static final String RECORD_DIR = "recordings"; // where recorded games are written
 //    private static PacManAlgo _manualAlgo = new ManualAlgo();
 	private static PacManAlgo _myAlgo = new Ex3Algo();
+//    private static PacManAlgo _rolloutAlgo = new RolloutAlgo();
 //    public static final PacManAlgo ALGO = _manualAlgo;
+//    public static final PacManAlgo ALGO = _rolloutAlgo;
 	public static final PacManAlgo ALGO = _myAlgo;
 }
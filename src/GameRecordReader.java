@@ -0,0 +1,189 @@
+import exe.ex3.game.GhostCL;
+import exe.ex3.game.PacManAlgo;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Plays back a recording written by {@link GameRecorder}, one tick at a time, without loading the whole game:
+ * next() decodes the following tick into the reader's state, and snapshot() freezes that state into a
+ * {@link GameSnapshot}, which any PacManAlgo can decide as if it were the live game. So a slow or bad decision can be
+ * reproduced (and profiled, e.g. with a MoveProfiler) offline.
+ * <pre>
+ *     try (GameRecordReader in = GameRecordReader.open(path)) {
+ *         while (in.next()) {int dir = algo.move(in.snapshot()); ...}
+ *     }
+ * </pre>
+ */
+public class GameRecordReader implements Closeable {
+
+    private final DataInputStream IN;
+    private final int SCENARIO;
+    private final long SEED;
+    private final int DT;
+    private int[][] BOARD;
+    private boolean CYCLIC;
+    private int PM_X = 0, PM_Y = 0;
+    private int[] GHOST_TYPE = new int[0], GHOST_STATUS = new int[0], GHOST_X = new int[0], GHOST_Y = new int[0];
+    private double[] GHOST_EATABLE = new double[0];
+    private int MOVE;
+    private long MOVE_MICROS;
+    private long TICK = -1;
+    private boolean ENDED = false;
+
+    /**
+     * Reads the header of a recording.
+     * @param in the recording (closed by close())
+     * @throws IOException if in can't be read or is not a recording this reader understands
+     */
+    public GameRecordReader(InputStream in) throws IOException {
+        this.IN = new DataInputStream(new BufferedInputStream(in));
+        if (this.IN.readInt() != GameRecorder.MAGIC) {throw new IOException("Not a game recording");}
+        int version = this.IN.readUnsignedByte();
+        if (version != GameRecorder.VERSION) {throw new IOException("Unsupported recording version " + version);}
+        this.SCENARIO = (int) this.readVarint();
+        this.SEED = this.readSigned();
+        this.DT = (int) this.readVarint();
+    }
+
+    /**
+     * Opens a recording file.
+     */
+    public static GameRecordReader open(Path file) throws IOException {return new GameRecordReader(Files.newInputStream(file));}
+
+    /**
+     * Decodes the next tick.
+     * @return true iff there was one (false at the end of the recording).
+     * @throws IOException if the recording can't be read or is corrupt
+     */
+    public boolean next() throws IOException {
+        if (this.ENDED) {return false;}
+        int tag = this.IN.read();
+        if (tag == GameRecorder.LAYOUT) {
+            int w = (int) this.readVarint();
+            int h = (int) this.readVarint();
+            this.CYCLIC = this.IN.readUnsignedByte() != 0;
+            this.BOARD = new int[w][h];
+            tag = this.IN.read();
+        }
+        if (tag == GameRecorder.END || tag == -1) {
+            // a game that crashed before close() has no END: its recording stops after the last whole tick
+            this.ENDED = true;
+            return false;
+        }
+        if (tag != GameRecorder.TICK || this.BOARD == null) {throw new IOException("Corrupt recording: unexpected tag " + tag);}
+        try {
+            int h = this.BOARD[0].length;
+            long changed = this.readVarint();
+            int cell = -1;
+            for (long i = 0; i < changed; i+=1) {
+                cell += (int) this.readVarint() + 1;
+                this.BOARD[cell / h][cell % h] = (int) this.readVarint();
+            }
+            this.PM_X += (int) this.readSigned();
+            this.PM_Y += (int) this.readSigned();
+            int ghosts = (int) this.readVarint();
+            if (ghosts != this.GHOST_X.length) {
+                this.GHOST_TYPE = new int[ghosts];
+                this.GHOST_STATUS = new int[ghosts];
+                this.GHOST_X = new int[ghosts];
+                this.GHOST_Y = new int[ghosts];
+                this.GHOST_EATABLE = new double[ghosts];
+            }
+            for (int i = 0; i < ghosts; i+=1) {
+                this.GHOST_TYPE[i] = (int) this.readVarint();
+                this.GHOST_STATUS[i] = (int) this.readVarint();
+                this.GHOST_X[i] += (int) this.readSigned();
+                this.GHOST_Y[i] += (int) this.readSigned();
+                this.GHOST_EATABLE[i] = this.readSigned() / 1000.0;
+            }
+            this.MOVE = (int) this.readVarint();
+            this.MOVE_MICROS = this.readVarint();
+        }
+        catch (EOFException | ArrayIndexOutOfBoundsException e) {
+            throw new IOException("Corrupt recording at tick " + (this.TICK + 1), e);
+        }
+        this.TICK += 1;
+        return true;
+    }
+
+    /**
+     * @return the current tick as a game state an algorithm can decide (see GameSnapshot).
+     */
+    public GameSnapshot snapshot() {
+        GhostCL[] gs = new GhostCL[this.GHOST_X.length];
+        for (int i = 0; i < gs.length; i+=1) {
+            gs[i] = new GameSnapshot.Ghost(this.GHOST_TYPE[i], this.GHOST_STATUS[i], this.GHOST_X[i], this.GHOST_Y[i], this.GHOST_EATABLE[i]);
+        }
+        return new GameSnapshot(this.BOARD, this.PM_X, this.PM_Y, gs, this.CYCLIC);
+    }
+
+    /**
+     * Feeds every remaining tick of the recording to algo, in order (so the state it keeps between moves behaves like
+     * in the recorded game).
+     * @return the number of ticks whose move differs from the recorded one.
+     */
+    public long replay(PacManAlgo algo) throws IOException {
+        long ans = 0;
+        while (this.next()) {
+            if (algo.move(this.snapshot()) != this.MOVE) {ans += 1;}
+        }
+        return ans;
+    }
+
+    /**
+     * @return the index of the current tick (0 for the first one, -1 before it).
+     */
+    public long getTick() {return this.TICK;}
+
+    /**
+     * @return the move recorded for the current tick.
+     */
+    public int getMove() {return this.MOVE;}
+
+    /**
+     * @return the time the recorded algorithm took to choose the current tick's move, in nanoseconds (microsecond precision).
+     */
+    public long getMoveNanos() {return this.MOVE_MICROS * 1000;}
+
+    /**
+     * @return the recorded game's scenario.
+     */
+    public int getScenario() {return this.SCENARIO;}
+
+    /**
+     * @return the recorded game's random seed.
+     */
+    public long getSeed() {return this.SEED;}
+
+    /**
+     * @return the recorded game's tick length, in milliseconds.
+     */
+    public int getDt() {return this.DT;}
+
+    @Override
+    public void close() throws IOException {this.IN.close();}
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private long readSigned() throws IOException {
+        long v = this.readVarint();
+        return (v >>> 1) ^ -(v & 1);
+    }
+
+    private long readVarint() throws IOException {
+        long ans = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = this.IN.readUnsignedByte();
+            ans |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {return ans;}
+        }
+        throw new IOException("Corrupt recording: varint too long");
+    }
+}
@@ -0,0 +1,214 @@
+import Classes.Index2D;
+import exe.ex3.game.GhostCL;
+import exe.ex3.game.PacmanGame;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Records a game, tick by tick, into a compact binary stream that {@link GameRecordReader} plays back: the board
+ * (game.getGame), Pac-Man's position, the ghosts, the move the algorithm chose and how long it took to choose it.
+ * <p>
+ * Format (version 1; every number is an unsigned LEB128 varint, "signed" ones are zigzag-encoded first):
+ * <pre>
+ *     header:  MAGIC (4 bytes, "PMRC"), VERSION (1 byte), scenario, signed seed, dt
+ *     LAYOUT:  tag 1, width, height, cyclic (0/1)  -- the board size; the previous board is all zeros again
+ *     TICK:    tag 2, changed cells, then (gap, value) for every changed cell, in [x][y] order
+ *              (gap: the cells skipped since the previous changed one, counting from the first cell),
+ *              signed dx, signed dy of Pac-Man (from his previous position, or from (0,0)),
+ *              ghosts, then for every ghost: type, status, signed dx, signed dy (from its previous position),
+ *              signed eatable time (in milliseconds),
+ *              the move, the move time (in microseconds)
+ *     END:     tag 0
+ * </pre>
+ * A LAYOUT comes before the first TICK and before any tick whose board has another size or cyclic flag.
+ * Between ticks the board changes in a cell or two (the pellets Pac-Man eats), so a tick takes a few bytes plus
+ * about five per ghost, and a whole game is some tens of kilobytes.
+ * </p>
+ * A recorder never stops the game: the first write that fails is reported on System.err and the recorder turns itself
+ * off. Ex3Main records every game when GameInfo.RECORD_GAMES is set.
+ */
+public class GameRecorder implements Closeable {
+
+    /** The first bytes of every recording ("PMRC"). */
+    public static final int MAGIC = 0x504D5243;
+    /** The format version this recorder writes. */
+    public static final int VERSION = 1;
+    /** The record tags. */
+    public static final int END = 0, LAYOUT = 1, TICK = 2;
+
+    private final DataOutputStream OUT;
+    private int[][] BOARD;
+    private boolean CYCLIC;
+    private int PM_X = 0, PM_Y = 0;
+    private int[] GHOST_X = new int[0], GHOST_Y = new int[0];
+    private long TICKS = 0;
+    private boolean FAILED = false;
+    // the changed cells of the current tick, reused between ticks
+    private int[] CHANGED = new int[64];
+
+    /**
+     * Starts a recording of a game.
+     * @param out the stream to write to (closed by close())
+     * @param scenario the game's scenario (GameInfo.CASE_SCENARIO)
+     * @param seed the game's random seed
+     * @param dt the game's tick length, in milliseconds
+     */
+    public GameRecorder(OutputStream out, int scenario, long seed, int dt) {
+        this.OUT = new DataOutputStream(new BufferedOutputStream(out));
+        try {
+            this.OUT.writeInt(MAGIC);
+            this.OUT.writeByte(VERSION);
+            this.writeVarint(scenario);
+            this.writeSigned(seed);
+            this.writeVarint(dt);
+        }
+        catch (IOException e) {this.fail(e);}
+    }
+
+    /**
+     * Starts a recording in a new file of dir, named after the scenario, the seed and the current time.
+     * @return the recorder, or null if the file can't be created (the reason is printed on System.err).
+     */
+    public static GameRecorder toDirectory(Path dir, int scenario, long seed, int dt) {
+        try {
+            Files.createDirectories(dir);
+            Path file = dir.resolve("game-" + scenario + "-" + seed + "-" + System.currentTimeMillis() + ".pmr");
+            return new GameRecorder(Files.newOutputStream(file), scenario, seed, dt);
+        }
+        catch (IOException e) {
+            System.err.println("Can't record the game in " + dir + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Records one tick: the state of game (as the algorithm saw it) and the move it chose.
+     * @param game the game, before the move is made
+     * @param move the chosen move (Game.UP ...)
+     * @param moveNanos the time the algorithm took to choose it
+     */
+    public void record(PacmanGame game, int move, long moveNanos) {
+        if (this.FAILED) {return;}
+        try {
+            int code = 0;
+            int[][] board = game.getGame(code);
+            boolean cyclic = game.isCyclic();
+            if (this.BOARD == null || this.BOARD.length != board.length || this.BOARD[0].length != board[0].length || this.CYCLIC != cyclic) {
+                this.layout(board.length, board[0].length, cyclic);
+            }
+            this.writeBoard(board);
+
+            String pos = game.getPos(code);
+            // Index2D reads "a,b" as (b,a), so the game's x is its y
+            int x = Index2D.parseY(pos);
+            int y = Index2D.parseX(pos);
+            this.writeSigned(x - this.PM_X);
+            this.writeSigned(y - this.PM_Y);
+            this.PM_X = x;
+            this.PM_Y = y;
+
+            GhostCL[] ghosts = game.getGhosts(code);
+            if (ghosts.length != this.GHOST_X.length) {
+                this.GHOST_X = new int[ghosts.length];
+                this.GHOST_Y = new int[ghosts.length];
+            }
+            this.writeVarint(ghosts.length);
+            for (int i = 0; i < ghosts.length; i+=1) {
+                String gp = ghosts[i].getPos(code);
+                int gx = Index2D.parseY(gp);
+                int gy = Index2D.parseX(gp);
+                this.writeVarint(ghosts[i].getType());
+                this.writeVarint(ghosts[i].getStatus());
+                this.writeSigned(gx - this.GHOST_X[i]);
+                this.writeSigned(gy - this.GHOST_Y[i]);
+                this.writeSigned(Math.round(ghosts[i].remainTimeAsEatable(code) * 1000));
+                this.GHOST_X[i] = gx;
+                this.GHOST_Y[i] = gy;
+            }
+            this.writeVarint(move);
+            this.writeVarint(Math.max(0, moveNanos / 1000));
+            this.TICKS += 1;
+        }
+        catch (IOException e) {this.fail(e);}
+    }
+
+    /**
+     * @return the number of ticks recorded so far.
+     */
+    public long getTicks() {return this.TICKS;}
+
+    /**
+     * @return the number of bytes written so far (some may still be buffered).
+     */
+    public long getBytes() {return this.OUT.size();}
+
+    /**
+     * Ends the recording and closes the stream.
+     */
+    @Override
+    public void close() {
+        try {
+            if (!this.FAILED) {this.OUT.writeByte(END);}
+            this.OUT.close();
+        }
+        catch (IOException e) {this.fail(e);}
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private void layout(int w, int h, boolean cyclic) throws IOException {
+        this.OUT.writeByte(LAYOUT);
+        this.writeVarint(w);
+        this.writeVarint(h);
+        this.OUT.writeByte(cyclic ? 1 : 0);
+        this.BOARD = new int[w][h];
+        this.CYCLIC = cyclic;
+    }
+
+    // the cells that differ from the previous board, as gaps between them
+    private void writeBoard(int[][] board) throws IOException {
+        int h = board[0].length;
+        int changed = 0;
+        for (int x = 0; x < board.length; x+=1) {
+            for (int y = 0; y < h; y+=1) {
+                if (board[x][y] != this.BOARD[x][y]) {
+                    if (changed == this.CHANGED.length) {this.CHANGED = java.util.Arrays.copyOf(this.CHANGED, changed * 2);}
+                    this.CHANGED[changed] = x * h + y;
+                    changed += 1;
+                }
+            }
+        }
+        this.OUT.writeByte(TICK);
+        this.writeVarint(changed);
+        int last = -1;
+        for (int i = 0; i < changed; i+=1) {
+            int cell = this.CHANGED[i];
+            int v = board[cell / h][cell % h];
+            this.writeVarint(cell - last - 1);
+            this.writeVarint(v);
+            this.BOARD[cell / h][cell % h] = v;
+            last = cell;
+        }
+    }
+
+    private void writeSigned(long v) throws IOException {this.writeVarint((v << 1) ^ (v >> 63));}
+
+    private void writeVarint(long v) throws IOException {
+        while ((v & ~0x7FL) != 0) {
+            this.OUT.writeByte((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        this.OUT.writeByte((int) v);
+    }
+
+    private void fail(IOException e) {
+        if (!this.FAILED) {System.err.println("Game recording stopped: " + e);}
+        this.FAILED = true;
+    }
+}
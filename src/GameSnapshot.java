@@ -0,0 +1,220 @@
+import Classes.Index2D;
+import exe.ex3.game.Game;
+import exe.ex3.game.GhostCL;
+import exe.ex3.game.PacmanGame;
+
+import java.awt.*;
+
+/**
+ * A frozen game state that answers the PacmanGame questions an algorithm asks in move(): the board, Pac-Man's
+ * position, the ghosts and the cyclic flag. A snapshot can be handed to another thread (it never changes, and
+ * move(), play() and end() do nothing), and replaying recorded snapshots through PacManAlgo.move measures the
+ * decision path without the GUI.
+ * <p>
+ * Like exe.ex3.game.Game, getGame returns a fresh copy of the board on every call.
+ * </p>
+ */
+public class GameSnapshot implements PacmanGame {
+
+    private static final int WALL = Game.getIntColor(Color.BLUE, 0);
+
+    private final int[][] BOARD;
+    private final int X;
+    private final int Y;
+    private final String POS;
+    private final GhostCL[] GHOSTS;
+    private final boolean CYCLIC;
+
+    /**
+     * @param board the board in the game's [x][y] layout (copied)
+     * @param x Pac-Man's x
+     * @param y Pac-Man's y
+     * @param ghosts the ghosts (see {@link Ghost})
+     * @param cyclic true iff the board wraps around its edges
+     */
+    public GameSnapshot(int[][] board, int x, int y, GhostCL[] ghosts, boolean cyclic) {
+        this(copy(board), ghosts.clone(), x, y, cyclic);
+    }
+
+    // takes the arrays as they are (they are never changed after construction)
+    private GameSnapshot(int[][] board, GhostCL[] ghosts, int x, int y, boolean cyclic) {
+        this.BOARD = board;
+        this.X = x;
+        this.Y = y;
+        this.POS = x + "," + y;
+        this.GHOSTS = ghosts;
+        this.CYCLIC = cyclic;
+    }
+
+    /**
+     * Freezes the current state of game (call it from the thread that plays the game).
+     */
+    public static GameSnapshot of(PacmanGame game) {
+        int code = 0;
+        String pos = game.getPos(code);
+        GhostCL[] ghosts = game.getGhosts(code);
+        GhostCL[] gs = new GhostCL[ghosts.length];
+        for (int i = 0; i < ghosts.length; i+=1) {
+            gs[i] = new Ghost(ghosts[i].getType(), ghosts[i].getStatus(), ghosts[i].getPos(code), ghosts[i].remainTimeAsEatable(code));
+        }
+        return new GameSnapshot(game.getGame(code), gs, Index2D.parseY(pos), Index2D.parseX(pos), game.isCyclic());
+    }
+
+    /**
+     * A frozen ghost.
+     */
+    public static class Ghost implements GhostCL {
+        private final int TYPE;
+        private final int STATUS;
+        private final String POS;
+        private final double EATABLE;
+
+        /**
+         * @param type the ghost type (GhostCL.RANDOM_WALK0, ...)
+         * @param status the ghost status (GhostCL.PLAY, ...)
+         * @param x the ghost's x
+         * @param y the ghost's y
+         * @param eatable the remaining time the ghost can be eaten (0 or less if it can't)
+         */
+        public Ghost(int type, int status, int x, int y, double eatable) {this(type, status, x + "," + y, eatable);}
+
+        Ghost(int type, int status, String pos, double eatable) {
+            this.TYPE = type;
+            this.STATUS = status;
+            this.POS = pos;
+            this.EATABLE = eatable;
+        }
+
+        @Override
+        public int getType() {return this.TYPE;}
+
+        @Override
+        public String getPos(int code) {return this.POS;}
+
+        @Override
+        public String getInfo() {return "type: " + this.TYPE + ", pos: " + this.POS + ", eatable: " + this.EATABLE;}
+
+        @Override
+        public double remainTimeAsEatable(int code) {return this.EATABLE;}
+
+        @Override
+        public int getStatus() {return this.STATUS;}
+    }
+
+    /**
+     * @param dir a game direction (Game.UP ...)
+     * @return true iff Pac-Man can step in dir: no wall (or edge of a non-cyclic board) blocks it.
+     */
+    public boolean canMove(int dir) {return this.next(dir) != -1;}
+
+    /**
+     * @param dir a game direction (Game.UP ...)
+     * @return true iff Pac-Man can step in dir and no ghost that can't be eaten is on that cell or next to it.
+     */
+    public boolean isSafeMove(int dir) {
+        int next = this.next(dir);
+        if (next == -1) {return false;}
+        int w = this.BOARD.length, h = this.BOARD[0].length;
+        int nx = next / h, ny = next % h;
+        for (GhostCL g : this.GHOSTS) {
+            if (g.remainTimeAsEatable(0) > 0) {continue;}
+            // Index2D reads "a,b" as (b,a), so the game's x is its y
+            String pos = g.getPos(0);
+            int dx = Math.abs(Index2D.parseY(pos) - nx);
+            int dy = Math.abs(Index2D.parseX(pos) - ny);
+            if (this.CYCLIC) {
+                dx = Math.min(dx, w - dx);
+                dy = Math.min(dy, h - dy);
+            }
+            if (dx + dy <= 1) {return false;}
+        }
+        return true;
+    }
+
+    /**
+     * Predicts the state after Pac-Man moves in dir: he takes the step unless a wall (or the edge of a non-cyclic board)
+     * blocks it, and eats the pellet he steps on. The ghosts stay where they are.
+     * @param dir a game direction (Game.UP ...; anything else keeps Pac-Man in place)
+     * @return the predicted snapshot (this one if Pac-Man stays in place).
+     */
+    public GameSnapshot moved(int dir) {
+        int next = this.next(dir);
+        if (next == -1) {return this;}
+        int nx = next / this.BOARD[0].length, ny = next % this.BOARD[0].length;
+        int[][] board = copy(this.BOARD);
+        board[nx][ny] = 0;
+        return new GameSnapshot(board, this.GHOSTS, nx, ny, this.CYCLIC);
+    }
+
+    /**
+     * @return Pac-Man's x.
+     */
+    public int getX() {return this.X;}
+
+    /**
+     * @return Pac-Man's y.
+     */
+    public int getY() {return this.Y;}
+
+    @Override
+    public Character getKeyChar() {return null;}
+
+    @Override
+    public String getPos(int code) {return this.POS;}
+
+    @Override
+    public GhostCL[] getGhosts(int code) {return this.GHOSTS.clone();}
+
+    @Override
+    public int[][] getGame(int code) {return copy(this.BOARD);}
+
+    @Override
+    public String move(int dir) {return "";}
+
+    @Override
+    public void play() {}
+
+    @Override
+    public String end(int code) {return "";}
+
+    @Override
+    public String getData(int code) {return "snapshot, pos: " + this.POS;}
+
+    @Override
+    public int getStatus() {return PacmanGame.PLAY;}
+
+    @Override
+    public boolean isCyclic() {return this.CYCLIC;}
+
+    @Override
+    public String init(int scenario, String id, boolean cyclic, long seed, double res, int dt, int code) {return "";}
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // the cell (x * height + y) Pac-Man reaches by stepping in dir, or -1 if he can't step there
+    private int next(int dir) {
+        int nx = this.X, ny = this.Y;
+        switch (dir) {
+            case UP -> ny += 1;
+            case DOWN -> ny -= 1;
+            case LEFT -> nx -= 1;
+            case RIGHT -> nx += 1;
+            default -> {return -1;}
+        }
+        int w = this.BOARD.length, h = this.BOARD[0].length;
+        if (this.CYCLIC) {
+            nx = (nx + w) % w;
+            ny = (ny + h) % h;
+        }
+        if (nx < 0 || ny < 0 || nx >= w || ny >= h || this.BOARD[nx][ny] == WALL) {return -1;}
+        return nx * h + ny;
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] ans = new int[board.length][];
+        for (int i = 0; i < board.length; i+=1) {
+            ans[i] = board[i].clone();
+        }
+        return ans;
+    }
+}
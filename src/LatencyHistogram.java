@@ -0,0 +1,124 @@
+import java.util.Locale;
+
+/**
+ * A fixed-size, allocation-free histogram of latencies in nanoseconds, in the spirit of HdrHistogram.
+ * <p>
+ * Values below 128 are counted exactly; above that every power-of-two range is split into 64 linear buckets,
+ * so any recorded value is reported with a relative error below 1/64 (~1.6%), from 1ns up to about 4.8 hours.
+ * Recording is a couple of shifts and an array increment, so it is cheap enough to stay on in every game.
+ * The histogram is not thread-safe: record from one thread (the game loop), read after the game.
+ * </p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int HALF = SUB_COUNT / 2;
+    // the largest shift a value can need (values are clamped to 2^44-1 ns, ~4.8 hours)
+    private static final int MAX_SHIFT = 44 - SUB_BITS;
+    private static final long MAX_VALUE = (1L << 44) - 1;
+
+    private final long[] COUNTS = new long[SUB_COUNT + MAX_SHIFT * HALF];
+    private long TOTAL = 0;
+    private long SUM = 0;
+    private long MIN = Long.MAX_VALUE;
+    private long MAX = 0;
+
+    /**
+     * Records one value (negative values count as 0, huge ones are clamped).
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        long v = Math.max(0, Math.min(nanos, MAX_VALUE));
+        this.COUNTS[index(v)] += 1;
+        this.TOTAL += 1;
+        this.SUM += v;
+        this.MIN = Math.min(this.MIN, v);
+        this.MAX = Math.max(this.MAX, v);
+    }
+
+    /**
+     * Forgets every recorded value.
+     */
+    public void reset() {
+        java.util.Arrays.fill(this.COUNTS, 0);
+        this.TOTAL = 0;
+        this.SUM = 0;
+        this.MIN = Long.MAX_VALUE;
+        this.MAX = 0;
+    }
+
+    /**
+     * @return the number of recorded values.
+     */
+    public long getCount() {return this.TOTAL;}
+
+    /**
+     * @return the mean of the recorded values (exact), or 0 if there are none.
+     */
+    public double getMean() {return this.TOTAL == 0 ? 0 : (double) this.SUM / this.TOTAL;}
+
+    /**
+     * @return the smallest recorded value (exact), or 0 if there are none.
+     */
+    public long getMin() {return this.TOTAL == 0 ? 0 : this.MIN;}
+
+    /**
+     * @return the largest recorded value (exact).
+     */
+    public long getMax() {return this.MAX;}
+
+    /**
+     * @param p the percentile, in [0,100]
+     * @return the smallest value such that p percent of the recorded values are not larger than it
+     * (up to the bucket precision, and never above getMax()), or 0 if there are none.
+     */
+    public long getPercentile(double p) {
+        if (this.TOTAL == 0) {return 0;}
+        long rank = Math.max(1, (long) Math.ceil(p / 100 * this.TOTAL));
+        long seen = 0;
+        for (int i = 0; i < this.COUNTS.length; i+=1) {
+            seen += this.COUNTS[i];
+            if (seen >= rank) {return Math.min(highestValue(i), this.MAX);}
+        }
+        return this.MAX;
+    }
+
+    /**
+     * @return the number of recorded values larger than nanos (counting whole buckets, so up to the bucket precision).
+     */
+    public long countAbove(long nanos) {
+        long ans = 0;
+        for (int i = index(Math.max(0, Math.min(nanos, MAX_VALUE))) + 1; i < this.COUNTS.length; i+=1) {
+            ans += this.COUNTS[i];
+        }
+        return ans;
+    }
+
+    /**
+     * @return a one-line summary in microseconds: count, mean, p50, p90, p99, p99.9 and max.
+     */
+    @Override
+    public String toString() {
+        return String.format(Locale.ROOT, "count: %d, mean: %.1fus, p50: %.1fus, p90: %.1fus, p99: %.1fus, p99.9: %.1fus, max: %.1fus",
+                this.TOTAL, this.getMean() / 1e3, this.getPercentile(50) / 1e3, this.getPercentile(90) / 1e3,
+                this.getPercentile(99) / 1e3, this.getPercentile(99.9) / 1e3, this.getMax() / 1e3);
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // values below SUB_COUNT map to themselves; above, shift keeps the top SUB_BITS bits (64..127) of the value
+    private static int index(long v) {
+        if (v < SUB_COUNT) {return (int) v;}
+        int shift = 64 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return SUB_COUNT + (shift - 1) * HALF + (int) ((v >>> shift) - HALF);
+    }
+
+    // the largest value that falls in bucket i
+    private static long highestValue(int i) {
+        if (i < SUB_COUNT) {return i;}
+        int shift = (i - SUB_COUNT) / HALF + 1;
+        long top = (i - SUB_COUNT) % HALF + HALF;
+        return ((top + 1) << shift) - 1;
+    }
+}
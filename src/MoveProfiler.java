@@ -0,0 +1,125 @@
+import exe.ex3.game.PacManAlgo;
+import exe.ex3.game.PacmanGame;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+/**
+ * Wraps a PacManAlgo and measures every move() call: its latency (in a {@link LatencyHistogram}), the bytes it
+ * allocated (from com.sun.management.ThreadMXBean, when the JVM supports it) and whether it missed the frame
+ * deadline (GameInfo.DT milliseconds). The moves themselves are the wrapped algorithm's, unchanged.
+ * <p>
+ * A measured move costs two System.nanoTime() and (when enabled) two allocation-counter reads and allocates nothing,
+ * so the profiler can stay on in real games. Ex3Main prints summary() when the game ends (see GameInfo.PROFILE_MOVES).
+ * </p>
+ */
+public class MoveProfiler implements PacManAlgo {
+
+    private final PacManAlgo ALGO;
+    private final long DEADLINE_NANOS;
+    private final LatencyHistogram LATENCY = new LatencyHistogram();
+    private final com.sun.management.ThreadMXBean THREADS;
+    private long MISSES = 0;
+    private long WORST_MISS = 0;
+    private long BYTES = 0;
+    private long MAX_BYTES = 0;
+
+    /**
+     * Profiles algo against a deadline of GameInfo.DT milliseconds.
+     */
+    public MoveProfiler(PacManAlgo algo) {this(algo, GameInfo.DT);}
+
+    /**
+     * @param algo the algorithm to profile
+     * @param deadlineMillis the time a move may take, in milliseconds
+     */
+    public MoveProfiler(PacManAlgo algo, long deadlineMillis) {
+        this.ALGO = algo;
+        this.DEADLINE_NANOS = deadlineMillis * 1_000_000L;
+        this.THREADS = allocationCounter();
+    }
+
+    @Override
+    public String getInfo() {return this.ALGO.getInfo();}
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public int move(PacmanGame game) {
+        long thread = this.THREADS == null ? 0 : Thread.currentThread().getId();
+        long bytes = this.THREADS == null ? 0 : this.THREADS.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        int ans = this.ALGO.move(game);
+        long nanos = System.nanoTime() - start;
+        if (this.THREADS != null) {
+            bytes = this.THREADS.getThreadAllocatedBytes(thread) - bytes;
+            this.BYTES += bytes;
+            this.MAX_BYTES = Math.max(this.MAX_BYTES, bytes);
+        }
+        this.LATENCY.record(nanos);
+        if (nanos > this.DEADLINE_NANOS) {
+            this.MISSES += 1;
+            this.WORST_MISS = Math.max(this.WORST_MISS, nanos - this.DEADLINE_NANOS);
+        }
+        return ans;
+    }
+
+    /**
+     * @return the profiled algorithm.
+     */
+    public PacManAlgo getAlgo() {return this.ALGO;}
+
+    /**
+     * @return the latency histogram of the moves so far.
+     */
+    public LatencyHistogram getLatency() {return this.LATENCY;}
+
+    /**
+     * @return the number of moves that took longer than the deadline.
+     */
+    public long getMisses() {return this.MISSES;}
+
+    /**
+     * @return the mean number of bytes allocated by a move, or -1 if the JVM can't measure allocations.
+     */
+    public double getBytesPerMove() {
+        if (this.THREADS == null) {return -1;}
+        return this.LATENCY.getCount() == 0 ? 0 : (double) this.BYTES / this.LATENCY.getCount();
+    }
+
+    /**
+     * @return a multi-line summary of the moves so far: latency percentiles, deadline misses and allocations.
+     */
+    public String summary() {
+        long moves = this.LATENCY.getCount();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Move profile (").append(this.ALGO.getClass().getSimpleName()).append(")\n");
+        sb.append("  latency: ").append(this.LATENCY).append('\n');
+        sb.append(String.format(Locale.ROOT, "  deadline: %dms, misses: %d (%.2f%%), worst overrun: %.3fms%n",
+                this.DEADLINE_NANOS / 1_000_000, this.MISSES, moves == 0 ? 0.0 : 100.0 * this.MISSES / moves, this.WORST_MISS / 1e6));
+        if (this.THREADS == null) {
+            sb.append("  allocation: not supported by this JVM");
+        }
+        else {
+            sb.append(String.format(Locale.ROOT, "  allocation: %.1f B/move, max: %d B, total: %.2f MB",
+                    this.getBytesPerMove(), this.MAX_BYTES, this.BYTES / 1e6));
+        }
+        return sb.toString();
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // the allocation counter of this JVM, or null if it has none
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                    && threads.isThreadAllocatedMemorySupported()) {
+                if (!threads.isThreadAllocatedMemoryEnabled()) {threads.setThreadAllocatedMemoryEnabled(true);}
+                return threads;
+            }
+        }
+        catch (UnsupportedOperationException | SecurityException e) {
+            // fall through, the moves are still timed
+        }
+        return null;
+    }
+}
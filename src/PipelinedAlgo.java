@@ -0,0 +1,199 @@
+import exe.ex3.game.PacManAlgo;
+import exe.ex3.game.PacmanGame;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a PacManAlgo on a background planner thread, one tick ahead of the game loop, so the planning time overlaps
+ * the game's own tick (ghosts, rendering) instead of adding to it.
+ * <p>
+ * Every move() answers from the decision the planner published for this tick, then freezes the state Pac-Man is about
+ * to reach ({@link GameSnapshot#moved(int)}: the current state with his chosen step taken) and hands it to the planner
+ * for the next tick. The handoffs are single-slot AtomicReferences, so neither side ever blocks on a lock: a newer
+ * request replaces one the planner has not started, and the planner wakes with LockSupport.unpark.
+ * A decision is used only if it was planned for this tick and Pac-Man really is where the planner predicted;
+ * otherwise (the plan is late, or the step was blocked) move() falls back on a safe move of its own: the last direction
+ * if it is still safe, else any safe direction, else any open one. The ghosts are one tick older in the planner's view,
+ * which the planned algorithm's safety margins (see AnytimePlanner) already cover.
+ * </p>
+ * The wrapped algorithm is only ever called from one thread at a time (the first move runs inline, every other one on
+ * the planner thread), so it needs no synchronization of its own. Call close() when the game ends.
+ */
+public class PipelinedAlgo implements PacManAlgo {
+
+    private final PacManAlgo ALGO;
+    private final long WAIT_NANOS;
+    private final AtomicReference<Request> REQUEST = new AtomicReference<>();
+    private final AtomicReference<Decision> DECISION = new AtomicReference<>();
+    private final Thread PLANNER;
+    private volatile Thread WAITER;
+    private volatile boolean CLOSED = false;
+    private long TICK = 0;
+    private int LAST_DIR = PacmanGame.STAY;
+    private long PLANNED = 0;
+    private long FALLBACKS = 0;
+
+    /**
+     * Pipelines algo, waiting up to GameInfo.PIPELINE_WAIT_MS for a late plan.
+     */
+    public PipelinedAlgo(PacManAlgo algo) {this(algo, GameInfo.PIPELINE_WAIT_MS);}
+
+    /**
+     * @param algo the algorithm to run on the planner thread
+     * @param waitMillis how long move() may wait for a plan that is not ready yet before it falls back (0: never waits)
+     */
+    public PipelinedAlgo(PacManAlgo algo, long waitMillis) {
+        this.ALGO = algo;
+        this.WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        this.PLANNER = new Thread(this::plan, "pacman-planner");
+        this.PLANNER.setDaemon(true);
+        this.PLANNER.start();
+    }
+
+    @Override
+    public String getInfo() {return this.ALGO.getInfo();}
+
+    @Override
+    public int move(PacmanGame game) {
+        GameSnapshot now = GameSnapshot.of(game);
+        int ans;
+        if (this.TICK == 0) {
+            // nothing was planned ahead for the first tick; the planner thread has not touched the algorithm yet
+            ans = this.ALGO.move(now);
+            this.PLANNED += 1;
+        }
+        else {
+            Decision d = this.decision();
+            if (d != null && d.TICK == this.TICK && d.X == now.getX() && d.Y == now.getY()) {
+                ans = d.DIR;
+                this.PLANNED += 1;
+            }
+            else {
+                ans = this.fallback(now);
+                this.FALLBACKS += 1;
+            }
+        }
+        this.LAST_DIR = ans;
+        this.TICK += 1;
+        this.REQUEST.set(new Request(this.TICK, now.moved(ans)));
+        LockSupport.unpark(this.PLANNER);
+        return ans;
+    }
+
+    /**
+     * @return the wrapped algorithm.
+     */
+    public PacManAlgo getAlgo() {return this.ALGO;}
+
+    /**
+     * @return the number of moves answered by the wrapped algorithm.
+     */
+    public long getPlanned() {return this.PLANNED;}
+
+    /**
+     * @return the number of moves answered by the fallback (the plan was late or its prediction wrong).
+     */
+    public long getFallbacks() {return this.FALLBACKS;}
+
+    /**
+     * @return a one-line summary: the moves that were planned and the ones that fell back.
+     */
+    public String summary() {
+        long moves = this.PLANNED + this.FALLBACKS;
+        return String.format(Locale.ROOT, "Pipelined planning (%s): planned: %d, fallbacks: %d (%.2f%%)",
+                this.ALGO.getClass().getSimpleName(), this.PLANNED, this.FALLBACKS, moves == 0 ? 0.0 : 100.0 * this.FALLBACKS / moves);
+    }
+
+    /**
+     * Stops the planner thread (a plan in progress is finished first, but never used).
+     */
+    public void close() {
+        this.CLOSED = true;
+        LockSupport.unpark(this.PLANNER);
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    /**
+     * A frozen state to plan the move of the given tick for.
+     */
+    private static final class Request {
+        private final long TICK;
+        private final GameSnapshot STATE;
+
+        private Request(long tick, GameSnapshot state) {
+            this.TICK = tick;
+            this.STATE = state;
+        }
+    }
+
+    /**
+     * The move planned for the given tick, valid only if Pac-Man is on (X,Y) then.
+     */
+    private static final class Decision {
+        private final long TICK;
+        private final int X, Y, DIR;
+
+        private Decision(long tick, int x, int y, int dir) {
+            this.TICK = tick;
+            this.X = x;
+            this.Y = y;
+            this.DIR = dir;
+        }
+    }
+
+    // the planner thread: plans the latest request, publishes the decision and sleeps until the next one
+    private void plan() {
+        while (!this.CLOSED) {
+            Request r = this.REQUEST.getAndSet(null);
+            if (r == null) {
+                LockSupport.park(this);
+                continue;
+            }
+            int dir;
+            try {dir = this.ALGO.move(r.STATE);}
+            catch (RuntimeException e) {
+                // the tick falls back, the next request gets a fresh try
+                dir = -1;
+            }
+            if (dir != -1) {this.DECISION.set(new Decision(r.TICK, r.STATE.getX(), r.STATE.getY(), dir));}
+            Thread waiter = this.WAITER;
+            if (waiter != null) {LockSupport.unpark(waiter);}
+        }
+    }
+
+    // the latest decision, after waiting up to WAIT_NANOS for the one of this tick
+    private Decision decision() {
+        Decision d = this.DECISION.get();
+        if (this.WAIT_NANOS <= 0 || (d != null && d.TICK >= this.TICK)) {return d;}
+        long end = System.nanoTime() + this.WAIT_NANOS;
+        this.WAITER = Thread.currentThread();
+        try {
+            // read again: a decision published before WAITER was set did not unpark this thread
+            d = this.DECISION.get();
+            long left;
+            while ((d == null || d.TICK < this.TICK) && (left = end - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(this, left);
+                d = this.DECISION.get();
+            }
+        }
+        finally {this.WAITER = null;}
+        return d;
+    }
+
+    // the last direction if it is still safe, else any safe direction, else any open one, else STAY
+    private int fallback(GameSnapshot state) {
+        if (state.isSafeMove(this.LAST_DIR)) {return this.LAST_DIR;}
+        int[] dirs = {PacmanGame.UP, PacmanGame.LEFT, PacmanGame.DOWN, PacmanGame.RIGHT};
+        for (int dir : dirs) {
+            if (state.isSafeMove(dir)) {return dir;}
+        }
+        for (int dir : dirs) {
+            if (state.canMove(dir)) {return dir;}
+        }
+        return PacmanGame.STAY;
+    }
+}
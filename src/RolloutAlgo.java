@@ -0,0 +1,246 @@
+import Classes.Interfaces.Pixel2D;
+import Classes.MapQuery;
+import Classes.MyMap;
+import exe.ex3.game.Game;
+import exe.ex3.game.GhostCL;
+import exe.ex3.game.PacManAlgo;
+import exe.ex3.game.PacmanGame;
+
+import java.awt.*;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A Monte Carlo PacManAlgo: every open first move is scored by the mean outcome of many short randomized rollouts
+ * (see {@link RolloutState}) played until a time budget runs out, and the best one is taken.
+ * <p>
+ * A rollout takes the first move, then follows the rollout policy for up to DEPTH ticks; its value is the points
+ * collected, minus DEATH_PENALTY if a ghost caught Pac-Man, plus CLEAR_BONUS if he ate the last pellet. The rollouts
+ * run on a ForkJoinPool with one worker per core: every worker cycles over the first moves with its own random
+ * stream and scratch state (so a rollout allocates nothing), and the per-move sums are merged when the budget is up.
+ * When the rollouts can't tell the moves apart (no pellet and no ghost within reach), the first step towards the
+ * nearest pellet breaks the tie.
+ * </p>
+ * The throughput of the rollouts (simulated ticks per second per core, see getStatesPerSecondPerCore()) decides how
+ * many rollouts fit in a move on a given machine; summary() reports it.
+ */
+public class RolloutAlgo implements PacManAlgo, AutoCloseable {
+
+    /** The value of a rollout in which Pac-Man dies, and of one in which he eats the last pellet. */
+    public static final int DEATH_PENALTY = 200, CLEAR_BONUS = 100;
+    // the game direction of every MyMap neighbour direction (MyMap.DIR_UP ... MyMap.DIR_RIGHT)
+    private static final int[] GAME_DIRS = {Game.UP, Game.DOWN, Game.LEFT, Game.RIGHT};
+    private static final int PINK = 3;
+    private static final int GREEN = 5;
+    // the seconds the ghosts stay eatable after a green pellet, like in the game
+    private static final double GREEN_SECONDS = 5;
+
+    private final ForkJoinPool POOL;
+    private final int DEPTH;
+    private final long BUDGET_NANOS;
+    private final SplittableRandom RANDOM;
+    private final Worker[] WORKERS;
+    private final GameBoard BOARD = new GameBoard();
+    private MapQuery _query;
+    private long ROLLOUTS = 0;
+    private long STATES = 0;
+    private long SEARCH_NANOS = 0;
+    private long MOVES = 0;
+
+    /**
+     * A RolloutAlgo on every core, with the GameInfo budget (PLANNER_BUDGET of DT) and depth (ROLLOUT_DEPTH).
+     */
+    public RolloutAlgo() {
+        this(GameInfo.ROLLOUT_THREADS, (long) (GameInfo.DT * GameInfo.PLANNER_BUDGET * 1_000_000), GameInfo.ROLLOUT_DEPTH, GameInfo.RANDOM_SEED);
+    }
+
+    /**
+     * @param threads the number of rollout workers (0 or less: one per core)
+     * @param budgetNanos the time a move may spend on rollouts
+     * @param depth the number of ticks a rollout plays
+     * @param seed the seed of the rollouts' random streams
+     */
+    public RolloutAlgo(int threads, long budgetNanos, int depth, long seed) {
+        int parallelism = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.POOL = new ForkJoinPool(parallelism);
+        this.DEPTH = depth;
+        this.BUDGET_NANOS = budgetNanos;
+        this.RANDOM = new SplittableRandom(seed);
+        this.WORKERS = new Worker[parallelism];
+    }
+
+    @Override
+    public String getInfo() {return "Monte Carlo rollouts on " + this.POOL.getParallelism() + " workers";}
+
+    @Override
+    public int move(PacmanGame game) {
+        long start = System.nanoTime();
+        long deadline = start + this.BUDGET_NANOS;
+        int code = 0;
+        int obs = Game.getIntColor(Color.BLUE, code);
+        MyMap board = this.BOARD.update(game.getGame(code), game.isCyclic());
+        Pixel2D pm = GameBoard.position(board, game.getPos(code));
+        GhostCL[] ghosts = game.getGhosts(code);
+        Pixel2D[] gs = new Pixel2D[ghosts.length];
+        int[] eatable = new int[ghosts.length];
+        for (int i = 0; i < ghosts.length; i+=1) {
+            gs[i] = GameBoard.position(board, ghosts[i].getPos(code));
+            double t = ghosts[i].remainTimeAsEatable(code);
+            eatable[i] = t <= 0 ? 0 : (int) Math.ceil(t * 1000 / GameInfo.DT);
+        }
+        RolloutState root = new RolloutState(board, obs, pm, gs, eatable, (int) (GREEN_SECONDS * 1000 / GameInfo.DT));
+
+        int toPellet = this.towardsPellet(board, pm, obs);
+        int open = 0;
+        for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+            if (root.canMove(d)) {open += 1;}
+        }
+        this.MOVES += 1;
+        if (open == 0) {return Game.STAY;}
+        if (open == 1) {
+            for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+                if (root.canMove(d)) {return GAME_DIRS[d];}
+            }
+        }
+
+        for (int w = 0; w < this.WORKERS.length; w+=1) {
+            this.WORKERS[w] = new Worker(root, this.RANDOM.split(), this.DEPTH, deadline);
+        }
+        this.POOL.invoke(new Search(this.WORKERS));
+        long[] sum = new long[MyMap.NEIGHBOURS];
+        long[] count = new long[MyMap.NEIGHBOURS];
+        for (Worker w : this.WORKERS) {
+            for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+                sum[d] += w.SUM[d];
+                count[d] += w.COUNT[d];
+            }
+            this.ROLLOUTS += w.ROLLOUTS;
+            this.STATES += w.STATES;
+        }
+        this.SEARCH_NANOS += System.nanoTime() - start;
+
+        int best = -1;
+        double bestValue = Double.NEGATIVE_INFINITY;
+        for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+            if (count[d] == 0) {continue;}
+            double value = (double) sum[d] / count[d];
+            if (value > bestValue || (value == bestValue && d == toPellet)) {
+                bestValue = value;
+                best = d;
+            }
+        }
+        return best == -1 ? Game.STAY : GAME_DIRS[best];
+    }
+
+    /**
+     * @return the number of rollouts played so far.
+     */
+    public long getRollouts() {return this.ROLLOUTS;}
+
+    /**
+     * @return the number of ticks simulated so far, over all the rollouts.
+     */
+    public long getStates() {return this.STATES;}
+
+    /**
+     * @return the simulated ticks per second of move() time, per rollout worker (0 before the first search).
+     */
+    public double getStatesPerSecondPerCore() {
+        if (this.SEARCH_NANOS == 0) {return 0;}
+        return this.STATES / (this.SEARCH_NANOS / 1e9) / this.POOL.getParallelism();
+    }
+
+    /**
+     * @return a one-line summary: workers, rollouts per move and the rollout throughput.
+     */
+    public String summary() {
+        return String.format(Locale.ROOT, "Rollouts: %d workers, %d moves, %.1f rollouts/move, %.0f states/s/core",
+                this.POOL.getParallelism(), this.MOVES, this.MOVES == 0 ? 0.0 : (double) this.ROLLOUTS / this.MOVES,
+                this.getStatesPerSecondPerCore());
+    }
+
+    /**
+     * Stops the rollout workers.
+     */
+    @Override
+    public void close() {this.POOL.shutdown();}
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // forks every worker and waits for all of them
+    private static final class Search extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Worker[] WORKERS;
+
+        private Search(Worker[] workers) {this.WORKERS = workers;}
+
+        @Override
+        protected void compute() {invokeAll(this.WORKERS);}
+    }
+
+    // plays rollouts for every open first move in turn until the deadline, at least one per move
+    private static final class Worker extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final RolloutState ROOT;
+        private final SplittableRandom RANDOM;
+        private final int DEPTH;
+        private final long DEADLINE;
+        private final long[] SUM = new long[MyMap.NEIGHBOURS];
+        private final long[] COUNT = new long[MyMap.NEIGHBOURS];
+        private long ROLLOUTS = 0;
+        private long STATES = 0;
+
+        private Worker(RolloutState root, SplittableRandom random, int depth, long deadline) {
+            this.ROOT = root;
+            this.RANDOM = random;
+            this.DEPTH = depth;
+            this.DEADLINE = deadline;
+        }
+
+        @Override
+        protected void compute() {
+            RolloutState state = this.ROOT.copy();
+            do {
+                for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+                    if (!this.ROOT.canMove(d)) {continue;}
+                    state.copyFrom(this.ROOT);
+                    state.step(d, this.RANDOM);
+                    int t = 1;
+                    while (t < this.DEPTH && !state.isDead() && !state.isCleared()) {
+                        int next = state.randomMove(this.RANDOM);
+                        if (next == -1) {break;}
+                        state.step(next, this.RANDOM);
+                        t += 1;
+                    }
+                    long value = state.getScore();
+                    if (state.isDead()) {value -= DEATH_PENALTY;}
+                    else if (state.isCleared()) {value += CLEAR_BONUS;}
+                    this.SUM[d] += value;
+                    this.COUNT[d] += 1;
+                    this.ROLLOUTS += 1;
+                    this.STATES += t;
+                }
+            } while (System.nanoTime() < this.DEADLINE);
+        }
+    }
+
+    // the MyMap direction of the first step towards the nearest pink pellet (green, once no pink is left), or -1
+    private int towardsPellet(MyMap board, Pixel2D pm, int obs) {
+        if (this._query == null || !this._query.isFor(board, pm, obs)) {
+            this._query = new MapQuery(board, pm, obs);
+        }
+        Pixel2D target = this._query.nearest(PINK);
+        if (target == null) {target = this._query.nearest(GREEN);}
+        if (target == null) {return -1;}
+        Pixel2D[] path = this._query.path(target);
+        if (path == null || path.length < 2) {return -1;}
+        int start = board.cellId(pm.getX(), pm.getY());
+        int next = board.cellId(path[1].getX(), path[1].getY());
+        for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+            if (board.neighbour(start, d) == next) {return d;}
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,248 @@
+import Classes.Interfaces.Pixel2D;
+import Classes.MyMap;
+
+import java.util.SplittableRandom;
+
+/**
+ * A compact, copyable model of a game for Monte Carlo rollouts: Pac-Man's cell, the pellets, the ghosts and their
+ * eatable timers, on the cell ids of a {@link MyMap}.
+ * <p>
+ * The walls don't change during a rollout, so the board's topology (the open neighbours of every cell) is built with
+ * the state and shared by all its copies; a copy owns only the pellets (one byte per cell) and the ghosts. copyFrom()
+ * resets a scratch state from another one with a few array copies and no allocation, so a rollout worker keeps one
+ * scratch state and rewinds it for every rollout.
+ * </p>
+ * The model is an approximation of the game: a tick moves Pac-Man, then every ghost either steps towards him
+ * (or away from him while it is eatable) or takes a random open step. Eating a ghost takes it out of the rollout.
+ * A state is not thread-safe; give every thread its own copy.
+ */
+public class RolloutState {
+
+    /** The points of a pink pellet, a green pellet and an eaten ghost. */
+    public static final int PINK_POINTS = 1, GREEN_POINTS = 5, GHOST_POINTS = 20;
+    private static final int PINK = 3;
+    private static final int GREEN = 5;
+    // the chance that a ghost steps towards (or away from) Pac-Man rather than randomly
+    private static final double CHASE = 0.7;
+
+    // shared by all the copies: NEXT[cell * 4 + d] is the open neighbour of cell in MyMap direction d, or -1
+    private final int[] NEXT;
+    private final int W;
+    private final int H;
+    private final boolean CYCLIC;
+    private final int GREEN_TICKS;
+    // owned by every copy
+    private final byte[] PELLETS;
+    private final int[] GHOSTS;
+    private final int[] EATABLE;
+    private int PM;
+    private int PM_DIR = -1;
+    private int PELLETS_LEFT;
+    private int SCORE = 0;
+    private boolean DEAD = false;
+
+    /**
+     * Builds the state of one tick.
+     * @param board the board
+     * @param obs the wall color
+     * @param pm Pac-Man's position
+     * @param ghosts the ghosts' positions
+     * @param eatableTicks the number of ticks every ghost can still be eaten (0: dangerous now)
+     * @param greenTicks the number of ticks the ghosts stay eatable after Pac-Man eats a green pellet
+     */
+    public RolloutState(MyMap board, int obs, Pixel2D pm, Pixel2D[] ghosts, int[] eatableTicks, int greenTicks) {
+        this.W = board.getWidth();
+        this.H = board.getHeight();
+        this.CYCLIC = board.isCyclic();
+        this.GREEN_TICKS = greenTicks;
+        int cells = this.W * this.H;
+        this.NEXT = new int[cells * MyMap.NEIGHBOURS];
+        this.PELLETS = new byte[cells];
+        int[] nb = new int[MyMap.NEIGHBOURS];
+        for (int c = 0; c < cells; c+=1) {
+            int v = board.getPixel(board.cellX(c), board.cellY(c));
+            if (v == PINK || v == GREEN) {
+                this.PELLETS[c] = (byte) v;
+                this.PELLETS_LEFT += 1;
+            }
+            board.neighbours(c, nb);
+            for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+                int n = nb[d];
+                boolean open = n != -1 && v != obs && board.getPixel(board.cellX(n), board.cellY(n)) != obs;
+                this.NEXT[c * MyMap.NEIGHBOURS + d] = open ? n : -1;
+            }
+        }
+        this.PM = board.cellId(pm.getX(), pm.getY());
+        this.GHOSTS = new int[ghosts.length];
+        this.EATABLE = eatableTicks.clone();
+        for (int i = 0; i < ghosts.length; i+=1) {
+            this.GHOSTS[i] = board.cellId(ghosts[i].getX(), ghosts[i].getY());
+        }
+    }
+
+    // a copy of other, sharing its topology
+    private RolloutState(RolloutState other) {
+        this.NEXT = other.NEXT;
+        this.W = other.W;
+        this.H = other.H;
+        this.CYCLIC = other.CYCLIC;
+        this.GREEN_TICKS = other.GREEN_TICKS;
+        this.PELLETS = new byte[other.PELLETS.length];
+        this.GHOSTS = new int[other.GHOSTS.length];
+        this.EATABLE = new int[other.EATABLE.length];
+        this.copyFrom(other);
+    }
+
+    /**
+     * @return a copy of this state (sharing the board topology, which never changes).
+     */
+    public RolloutState copy() {return new RolloutState(this);}
+
+    /**
+     * Makes this state equal to other, which must be a copy of the same tick's state (or of one of its copies).
+     * Nothing is allocated.
+     */
+    public void copyFrom(RolloutState other) {
+        System.arraycopy(other.PELLETS, 0, this.PELLETS, 0, this.PELLETS.length);
+        System.arraycopy(other.GHOSTS, 0, this.GHOSTS, 0, this.GHOSTS.length);
+        System.arraycopy(other.EATABLE, 0, this.EATABLE, 0, this.EATABLE.length);
+        this.PM = other.PM;
+        this.PM_DIR = other.PM_DIR;
+        this.PELLETS_LEFT = other.PELLETS_LEFT;
+        this.SCORE = other.SCORE;
+        this.DEAD = other.DEAD;
+    }
+
+    /**
+     * @param d a MyMap direction (MyMap.DIR_UP ...)
+     * @return true iff Pac-Man can step in d.
+     */
+    public boolean canMove(int d) {return this.NEXT[this.PM * MyMap.NEIGHBOURS + d] != -1;}
+
+    /**
+     * Plays one tick: Pac-Man steps in d (or stays, if he can't), eats what he finds, then the ghosts move.
+     * Does nothing once Pac-Man is dead.
+     * @param d a MyMap direction (MyMap.DIR_UP ...)
+     * @param rnd the source of the ghosts' random steps
+     */
+    public void step(int d, SplittableRandom rnd) {
+        if (this.DEAD) {return;}
+        int next = this.NEXT[this.PM * MyMap.NEIGHBOURS + d];
+        if (next != -1) {
+            this.PM = next;
+            this.PM_DIR = d;
+            int p = this.PELLETS[next];
+            if (p != 0) {
+                this.PELLETS[next] = 0;
+                this.PELLETS_LEFT -= 1;
+                this.SCORE += p == GREEN ? GREEN_POINTS : PINK_POINTS;
+                if (p == GREEN) {java.util.Arrays.fill(this.EATABLE, this.GREEN_TICKS);}
+            }
+        }
+        this.meetGhosts();
+        for (int i = 0; i < this.GHOSTS.length && !this.DEAD; i+=1) {
+            if (this.GHOSTS[i] == -1) {continue;}
+            // a ghost on Pac-Man's new cell already met him above, so swapping cells with him is covered too
+            this.GHOSTS[i] = this.ghostStep(this.GHOSTS[i], this.EATABLE[i] > 0, rnd);
+            if (this.GHOSTS[i] == this.PM) {this.meet(i);}
+            if (this.EATABLE[i] > 0) {this.EATABLE[i] -= 1;}
+        }
+    }
+
+    /**
+     * The rollout policy: a random open direction, not straight back unless it is the only one, and a direction
+     * with a pellet next to Pac-Man whenever there is one.
+     * @return a MyMap direction, or -1 if Pac-Man can't move at all.
+     */
+    public int randomMove(SplittableRandom rnd) {
+        int base = this.PM * MyMap.NEIGHBOURS;
+        int back = this.PM_DIR == -1 ? -1 : this.PM_DIR ^ 1;
+        int open = 0, pellets = 0, pick = -1, pellet = -1;
+        for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+            int n = this.NEXT[base + d];
+            if (n == -1 || d == back) {continue;}
+            // reservoir sampling, so nothing is allocated
+            open += 1;
+            if (rnd.nextInt(open) == 0) {pick = d;}
+            if (this.PELLETS[n] != 0) {
+                pellets += 1;
+                if (rnd.nextInt(pellets) == 0) {pellet = d;}
+            }
+        }
+        if (pellet != -1) {return pellet;}
+        if (pick != -1) {return pick;}
+        return back != -1 && this.NEXT[base + back] != -1 ? back : -1;
+    }
+
+    /**
+     * @return the points Pac-Man collected since the state was built.
+     */
+    public int getScore() {return this.SCORE;}
+
+    /**
+     * @return true iff a dangerous ghost caught Pac-Man.
+     */
+    public boolean isDead() {return this.DEAD;}
+
+    /**
+     * @return true iff no pellet is left.
+     */
+    public boolean isCleared() {return this.PELLETS_LEFT == 0;}
+
+    /**
+     * @return Pac-Man's cell id (see MyMap.cellId).
+     */
+    public int getPacman() {return this.PM;}
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // Pac-Man and every ghost on his cell meet
+    private void meetGhosts() {
+        for (int i = 0; i < this.GHOSTS.length && !this.DEAD; i+=1) {
+            if (this.GHOSTS[i] == this.PM) {this.meet(i);}
+        }
+    }
+
+    // an eatable ghost is eaten, any other one kills Pac-Man
+    private void meet(int i) {
+        if (this.EATABLE[i] > 0) {
+            this.GHOSTS[i] = -1;
+            this.SCORE += GHOST_POINTS;
+        }
+        else {this.DEAD = true;}
+    }
+
+    // the ghost's next cell: towards Pac-Man (away while eatable) with probability CHASE, else a random open neighbour
+    private int ghostStep(int cell, boolean flee, SplittableRandom rnd) {
+        int base = cell * MyMap.NEIGHBOURS;
+        boolean chase = rnd.nextDouble() < CHASE;
+        int best = cell, bestDist = flee ? -1 : Integer.MAX_VALUE, open = 0;
+        for (int d = 0; d < MyMap.NEIGHBOURS; d+=1) {
+            int n = this.NEXT[base + d];
+            if (n == -1) {continue;}
+            if (chase) {
+                int dist = this.manhattan(n, this.PM);
+                if (flee ? dist > bestDist : dist < bestDist) {
+                    bestDist = dist;
+                    best = n;
+                }
+            }
+            else {
+                open += 1;
+                if (rnd.nextInt(open) == 0) {best = n;}
+            }
+        }
+        return best;
+    }
+
+    // the Manhattan distance between two cells, around the edges of a cyclic board
+    private int manhattan(int a, int b) {
+        int dx = Math.abs(a % this.W - b % this.W);
+        int dy = Math.abs(a / this.W - b / this.W);
+        if (this.CYCLIC) {
+            dx = Math.min(dx, this.W - dx);
+            dy = Math.min(dy, this.H - dy);
+        }
+        return dx + dy;
+    }
+}
@@ -0,0 +1,87 @@
+package Classes;
+
+import Classes.Interfaces.Pixel2D;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares MyMap.components() and components(obsColor) with the components the baseline fill paints
+ * ({@link BaselineMap}): two cells share a label iff one fill paints them both. The large maps are labeled in strips.
+ */
+class ComponentLabelsTest {
+
+    private static final int OBS = 1;
+
+    @Test
+    void componentsMatchBaselineFill() {
+        Random rnd = new Random(8);
+        for (int i = 0; i < 200; i+=1) {
+            int[][] cells = randomCells(rnd, 1 + rnd.nextInt(16), 1 + rnd.nextInt(16), 4);
+            boolean cyclic = rnd.nextBoolean();
+            check(new MyMap(cells, cyclic).components(), cells, cyclic, "map " + i);
+        }
+    }
+
+    @Test
+    void walkableComponentsMatchBaselineFill() {
+        Random rnd = new Random(9);
+        for (int i = 0; i < 200; i+=1) {
+            int[][] cells = randomCells(rnd, 1 + rnd.nextInt(16), 1 + rnd.nextInt(16), 4);
+            boolean cyclic = rnd.nextBoolean();
+            // walkable or not is all that matters
+            int[][] keys = new int[cells.length][cells[0].length];
+            for (int y = 0; y < keys.length; y+=1) {
+                for (int x = 0; x < keys[y].length; x+=1) {keys[y][x] = cells[y][x] == OBS ? 1 : 0;}
+            }
+            check(new MyMap(cells, cyclic).components(OBS), keys, cyclic, "map " + i);
+        }
+    }
+
+    @Test
+    void stripsOfALargeMapMatchBaselineFill() {
+        // more cells than ComponentLabels labels in a single strip; with 6 colors the components stay small
+        Random rnd = new Random(10);
+        for (boolean cyclic : new boolean[]{false, true}) {
+            int[][] cells = randomCells(rnd, 300, 230, 6);
+            check(new MyMap(cells, cyclic).components(), cells, cyclic, cyclic ? "cyclic" : "flat");
+        }
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // paints every component of cells with its own (negative) color by the baseline fill, and checks that the labels
+    // and the painted colors are the same partition of the cells
+    private static void check(ComponentLabels labels, int[][] cells, boolean cyclic, String what) {
+        BaselineMap base = new BaselineMap(cells, cyclic);
+        int w = base.getWidth(), h = base.getHeight();
+        int components = 0;
+        Map<Integer, Integer> labelOfColor = new HashMap<>();
+        Map<Integer, Integer> colorOfLabel = new HashMap<>();
+        for (int y = 0; y < h; y+=1) {
+            for (int x = 0; x < w; x+=1) {
+                Pixel2D p = new Index2D(x, y);
+                if (base.getPixel(p) >= 0) {
+                    components += 1;
+                    base.fill(p, -components);
+                }
+                int color = base.getPixel(p), label = labels.getLabel(x, y);
+                assertEquals(label, labelOfColor.computeIfAbsent(color, c -> label), what + ": " + p + " is in another component");
+                assertEquals(color, colorOfLabel.computeIfAbsent(label, l -> color), what + ": " + p + " is in another component");
+            }
+        }
+        assertEquals(components, labels.getCount(), what);
+    }
+
+    private static int[][] randomCells(Random rnd, int w, int h, int colors) {
+        int[][] ans = new int[h][w];
+        for (int y = 0; y < h; y+=1) {
+            for (int x = 0; x < w; x+=1) {ans[y][x] = rnd.nextInt(colors);}
+        }
+        return ans;
+    }
+}
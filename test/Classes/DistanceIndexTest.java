@@ -0,0 +1,57 @@
+package Classes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares DistanceIndex.distance with MyMap.allDistance for every pair of cells of random cyclic and flat maps,
+ * and checks that nextHop walks a shortest path.
+ */
+class DistanceIndexTest {
+
+    private static final int OBS = 1;
+
+    @Test
+    void distanceAndNextHopFollowAllDistance() {
+        Random rnd = new Random(11);
+        for (int m = 0; m < 100; m+=1) {
+            int w = 1 + rnd.nextInt(12), h = 1 + rnd.nextInt(12);
+            MyMap map = new MyMap(w, h, 0, rnd.nextBoolean());
+            for (int y = 0; y < h; y+=1) {
+                for (int x = 0; x < w; x+=1) {
+                    if (rnd.nextDouble() < 0.3) {map.setPixel(x, y, OBS);}
+                }
+            }
+            DistanceIndex index = DistanceIndex.forMap(map, OBS, Long.MAX_VALUE);
+            assertNotNull(index);
+            int[] nb = new int[MyMap.NEIGHBOURS];
+            for (int a = 0; a < w * h; a+=1) {
+                int[][] dist = map.allDistance(map.pixel(map.cellX(a), map.cellY(a)), OBS).getMap();
+                boolean walkable = map.getPixel(map.cellX(a), map.cellY(a)) != OBS;
+                for (int b = 0; b < w * h; b+=1) {
+                    int expected = walkable ? dist[map.cellY(b)][map.cellX(b)] : -1;
+                    String what = "map " + m + ", from " + a + " to " + b;
+                    assertEquals(expected, index.distance(a, b), what);
+
+                    int hop = index.nextHop(a, b);
+                    if (expected <= 0) {
+                        assertEquals(expected == 0 ? a : -1, hop, what);
+                        continue;
+                    }
+                    map.neighbours(a, nb);
+                    boolean neighbour = false;
+                    for (int n : nb) {neighbour |= n == hop;}
+                    assertNotEquals(-1, hop, what);
+                    assertTrue(neighbour, what + ": " + hop + " is not a neighbour");
+                    assertEquals(expected - 1, index.distance(hop, b), what);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package Classes;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Round trips of MapCodec (and of MyMap's serialization, which uses it), empty and large maps included, and corrupt input: every flipped byte and
+ * every truncation of an encoded map must end in an IOException or (for a flipped cell or flag) a map of the same
+ * size, never in another exception or a huge allocation.
+ */
+class MapCodecTest {
+
+    // MAGIC, VERSION, W, H and the payload length: a flip there is always detected
+    private static final int[] CHECKED_HEADER_BYTES = {0, 1, 2, 3, 4, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18};
+
+    @Test
+    void roundTrips() throws IOException {
+        Random rnd = new Random(12);
+        for (int i = 0; i < 100; i+=1) {
+            MyMap map = randomMap(rnd);
+            for (MapCodec.Encoding encoding : MapCodec.Encoding.values()) {
+                MyMap back = MapCodec.decode(MapCodec.encode(map, encoding));
+                assertArrayEquals(map.getMap(), back.getMap(), "map " + i + " " + encoding);
+                assertEquals(map.isCyclic(), back.isCyclic(), "map " + i + " " + encoding);
+
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                MapCodec.write(map, encoding, Channels.newChannel(out));
+                // a channel that carries another map after this one
+                MapCodec.write(map, encoding, Channels.newChannel(out));
+                var ch = Channels.newChannel(new ByteArrayInputStream(out.toByteArray()));
+                assertArrayEquals(map.getMap(), MapCodec.read(ch).getMap(), "map " + i + " " + encoding);
+                assertArrayEquals(map.getMap(), MapCodec.read(ch).getMap(), "map " + i + " " + encoding);
+            }
+        }
+    }
+
+    @Test
+    void serializationRoundTrips() throws IOException, ClassNotFoundException {
+        MyMap map = randomMap(new Random(13));
+        map.setSearchMode(SearchMode.A_STAR);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {out.writeObject(map);}
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            MyMap back = (MyMap) in.readObject();
+            assertArrayEquals(map.getMap(), back.getMap());
+            assertEquals(map.isCyclic(), back.isCyclic());
+            assertEquals(SearchMode.A_STAR, back.getSearchMode());
+        }
+    }
+
+    @Test
+    void emptyMapsRoundTrip() throws IOException, ClassNotFoundException {
+        for (int[] size : new int[][]{{0, 0}, {0, 3}, {3, 0}}) {
+            MyMap map = new MyMap(size[0], size[1], 0, true);
+            for (MapCodec.Encoding encoding : MapCodec.Encoding.values()) {
+                checkSameMap(map, MapCodec.decode(MapCodec.encode(map, encoding)), size[0] + "x" + size[1] + " " + encoding);
+            }
+            checkSameMap(map, serializeAndBack(map), size[0] + "x" + size[1]);
+        }
+    }
+
+    @Test
+    void mapsOfMoreThan4096x4096CellsRoundTrip() throws IOException, ClassNotFoundException {
+        MyMap map = new MyMap(4097, 4096, 0, false);
+        Random rnd = new Random(16);
+        for (int i = 0; i < 1000; i+=1) {map.setPixel(rnd.nextInt(4097), rnd.nextInt(4096), 1 + rnd.nextInt(3));}
+        checkSameMap(map, MapCodec.decode(MapCodec.encode(map, MapCodec.Encoding.RLE)), "RLE");
+        checkSameMap(map, serializeAndBack(map), "serialized");
+    }
+
+    @Test
+    void everyFlippedByteIsDetectedOrHarmless() {
+        Random rnd = new Random(14);
+        for (int i = 0; i < 20; i+=1) {
+            MyMap map = randomMap(rnd);
+            for (MapCodec.Encoding encoding : MapCodec.Encoding.values()) {
+                byte[] bytes = toArray(MapCodec.encode(map, encoding));
+                for (int at = 0; at < bytes.length; at+=1) {
+                    for (int bit = 0; bit < 8; bit+=1) {
+                        byte[] corrupt = bytes.clone();
+                        corrupt[at] ^= (byte) (1 << bit);
+                        String what = "map " + i + " " + encoding + ", bit " + bit + " of byte " + at;
+                        checkCorrupt(corrupt, map, isCheckedHeaderByte(at), what);
+                    }
+                    byte[] corrupt = bytes.clone();
+                    corrupt[at] ^= (byte) 0xFF;
+                    checkCorrupt(corrupt, map, isCheckedHeaderByte(at), "map " + i + " " + encoding + ", byte " + at);
+                }
+            }
+        }
+    }
+
+    @Test
+    void everyTruncationIsDetected() {
+        MyMap map = randomMap(new Random(15));
+        for (MapCodec.Encoding encoding : MapCodec.Encoding.values()) {
+            byte[] bytes = toArray(MapCodec.encode(map, encoding));
+            for (int size = 0; size < bytes.length; size+=1) {
+                byte[] cut = java.util.Arrays.copyOf(bytes, size);
+                assertThrows(IOException.class, () -> MapCodec.decode(ByteBuffer.wrap(cut)), encoding + ", " + size + " bytes");
+                assertThrows(IOException.class, () -> MapCodec.read(Channels.newChannel(new ByteArrayInputStream(cut))), encoding + ", " + size + " bytes");
+            }
+        }
+    }
+
+    @Test
+    void hugeSizesAreRejectedWithoutAllocating() {
+        // a few bytes of RLE claiming a 65535x65535 map, and a payload length of 2 GB on a channel of a few bytes
+        ByteBuffer bomb = ByteBuffer.allocate(MapCodec.HEADER_BYTES + 3).order(ByteOrder.LITTLE_ENDIAN);
+        bomb.putInt(MapCodec.MAGIC).put((byte) MapCodec.VERSION).put((byte) MapCodec.Encoding.RLE.ordinal()).put((byte) 0);
+        bomb.putInt(0xFFFF).putInt(0xFFFF).putInt(3);
+        bomb.put((byte) 1).put((byte) 0).put((byte) 0x7F);
+        assertThrows(IOException.class, () -> MapCodec.decode(bomb.flip()));
+
+        ByteBuffer bigPayload = MapCodec.encode(new MyMap(4096, 4096, 0, false), MapCodec.Encoding.RLE);
+        byte[] bytes = toArray(bigPayload);
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(15, Integer.MAX_VALUE - 8);
+        assertThrows(IOException.class, () -> MapCodec.read(Channels.newChannel(new ByteArrayInputStream(bytes))));
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // decoding corrupt must throw an IOException, or (unless detected is required) give a map of map's size
+    private static void checkCorrupt(byte[] corrupt, MyMap map, boolean detected, String what) {
+        try {
+            MyMap fromBuffer = MapCodec.decode(ByteBuffer.wrap(corrupt));
+            MyMap fromChannel = MapCodec.read(Channels.newChannel(new ByteArrayInputStream(corrupt)));
+            if (detected) {fail(what + " was not detected");}
+            assertEquals(map.getWidth(), fromBuffer.getWidth(), what);
+            assertEquals(map.getHeight(), fromBuffer.getHeight(), what);
+            assertArrayEquals(fromBuffer.getMap(), fromChannel.getMap(), what);
+        }
+        catch (IOException e) {
+            // detected
+        }
+        catch (RuntimeException | Error e) {
+            throw new AssertionError(what + " threw " + e, e);
+        }
+    }
+
+    private static void checkSameMap(MyMap expected, MyMap actual, String what) {
+        assertEquals(expected.getWidth(), actual.getWidth(), what);
+        assertEquals(expected.getHeight(), actual.getHeight(), what);
+        assertEquals(expected.isCyclic(), actual.isCyclic(), what);
+        assertArrayEquals(expected.cells(), actual.cells(), what);
+    }
+
+    private static MyMap serializeAndBack(MyMap map) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {out.writeObject(map);}
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (MyMap) in.readObject();
+        }
+    }
+
+    private static boolean isCheckedHeaderByte(int at) {
+        for (int b : CHECKED_HEADER_BYTES) {
+            if (b == at) {return true;}
+        }
+        return false;
+    }
+
+    // a maze-like map: long runs of a few colors, with some noise
+    private static MyMap randomMap(Random rnd) {
+        int w = 1 + rnd.nextInt(40), h = 1 + rnd.nextInt(40);
+        MyMap ans = new MyMap(w, h, 0, rnd.nextBoolean());
+        int v = 0;
+        for (int y = 0; y < h; y+=1) {
+            for (int x = 0; x < w; x+=1) {
+                if (rnd.nextInt(6) == 0) {v = rnd.nextInt(5) - 1;}
+                ans.setPixel(x, y, rnd.nextInt(50) == 0 ? rnd.nextInt() : v);
+            }
+        }
+        return ans;
+    }
+
+    private static byte[] toArray(ByteBuffer buf) {
+        byte[] ans = new byte[buf.remaining()];
+        buf.get(ans);
+        return ans;
+    }
+}
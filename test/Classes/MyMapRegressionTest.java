@@ -0,0 +1,152 @@
+package Classes;
+
+import Classes.Interfaces.Pixel2D;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares fill, allDistance and shortestPath of MyMap with the baseline engine ({@link BaselineMap}), cell by cell,
+ * on random cyclic and flat maps of random sizes and obstacle densities, from free cells and from obstacles.
+ */
+class MyMapRegressionTest {
+
+    private static final int OBS = 1;
+    private static final int MAPS = 300;
+    private static final int MAX_SIZE = 14;
+
+    @Test
+    void fillMatchesBaseline() {
+        Random rnd = new Random(1);
+        for (int i = 0; i < MAPS; i+=1) {
+            int[][] cells = randomCells(rnd);
+            boolean cyclic = rnd.nextBoolean();
+            MyMap map = new MyMap(cells, cyclic);
+            BaselineMap base = new BaselineMap(cells, cyclic);
+            Pixel2D start = new Index2D(rnd.nextInt(base.getWidth()), rnd.nextInt(base.getHeight()));
+            int color = rnd.nextInt(4);
+            String what = describe(i, cells, cyclic) + " fill " + start + " with " + color;
+            assertEquals(base.fill(start, color), map.fill(start, color), what);
+            assertArrayEquals(base.getMap(), map.getMap(), what);
+        }
+    }
+
+    @Test
+    void allDistanceMatchesBaseline() {
+        Random rnd = new Random(2);
+        for (int i = 0; i < MAPS; i+=1) {
+            int[][] cells = randomCells(rnd);
+            boolean cyclic = rnd.nextBoolean();
+            Pixel2D start = randomFree(rnd, cells);
+            if (start == null) {continue;}
+            String what = describe(i, cells, cyclic) + " from " + start;
+            int[][] expected = new BaselineMap(cells, cyclic).allDistance(start, OBS).getMap();
+            assertArrayEquals(expected, new MyMap(cells, cyclic).allDistance(start, OBS).getMap(), what);
+        }
+    }
+
+    @Test
+    void shortestPathMatchesBaseline() {
+        Random rnd = new Random(3);
+        for (int i = 0; i < MAPS; i+=1) {
+            int[][] cells = randomCells(rnd);
+            boolean cyclic = rnd.nextBoolean();
+            Pixel2D start = randomFree(rnd, cells);
+            Pixel2D end = randomFree(rnd, cells);
+            if (start == null) {continue;}
+            Pixel2D[] expected = new BaselineMap(cells, cyclic).shortestPath(start, end, OBS);
+            for (SearchMode mode : SearchMode.values()) {
+                String what = describe(i, cells, cyclic) + " " + mode + " from " + start + " to " + end;
+                MyMap map = new MyMap(cells, cyclic);
+                map.setSearchMode(mode);
+                Pixel2D[] path = map.shortestPath(start, end, OBS);
+                if (expected == null) {
+                    assertNull(path, what);
+                    continue;
+                }
+                // a shortest path is not unique: it must be as long as the baseline's, and a path
+                assertNotNull(path, what);
+                assertEquals(expected.length, path.length, what);
+                assertEquals(start, path[0], what);
+                assertEquals(end, path[path.length - 1], what);
+                for (int j = 0; j < path.length; j+=1) {
+                    assertTrue(cells[path[j].getY()][path[j].getX()] != OBS, what + ": an obstacle at step " + j);
+                    if (j > 0) {assertTrue(adjacent(path[j - 1], path[j], cells, cyclic), what + ": a jump at step " + j);}
+                }
+            }
+        }
+    }
+
+    @Test
+    void shortestPathFromAnObstacleIsNull() {
+        Random rnd = new Random(17);
+        for (int i = 0; i < MAPS; i+=1) {
+            int[][] cells = randomCells(rnd);
+            boolean cyclic = rnd.nextBoolean();
+            Pixel2D start = randomObstacle(rnd, cells);
+            Pixel2D end = randomFree(rnd, cells);
+            if (start == null || end == null) {continue;}
+            String what = describe(i, cells, cyclic) + " from " + start + " to " + end;
+            assertNull(new BaselineMap(cells, cyclic).shortestPath(start, end, OBS), what);
+            for (SearchMode mode : SearchMode.values()) {
+                MyMap map = new MyMap(cells, cyclic);
+                map.setSearchMode(mode);
+                assertNull(map.shortestPath(start, end, OBS), what + " " + mode);
+                // and with the components already labeled
+                map.components(OBS);
+                assertNull(map.shortestPath(start, end, OBS), what + " " + mode + ", labeled");
+            }
+        }
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // a map of 1..MAX_SIZE x 1..MAX_SIZE cells (as [y][x]), of colors 0, 2 and 3 and obstacles of a random density
+    private static int[][] randomCells(Random rnd) {
+        int w = 1 + rnd.nextInt(MAX_SIZE), h = 1 + rnd.nextInt(MAX_SIZE);
+        double density = rnd.nextDouble() * 0.45;
+        int[][] ans = new int[h][w];
+        for (int y = 0; y < h; y+=1) {
+            for (int x = 0; x < w; x+=1) {
+                ans[y][x] = rnd.nextDouble() < density ? OBS : new int[]{0, 2, 3}[rnd.nextInt(3)];
+            }
+        }
+        return ans;
+    }
+
+    private static Pixel2D randomFree(Random rnd, int[][] cells) {
+        for (int tries = 0; tries < 100; tries+=1) {
+            int x = rnd.nextInt(cells[0].length), y = rnd.nextInt(cells.length);
+            if (cells[y][x] != OBS) {return new Index2D(x, y);}
+        }
+        return null;
+    }
+
+    private static Pixel2D randomObstacle(Random rnd, int[][] cells) {
+        for (int tries = 0; tries < 100; tries+=1) {
+            int x = rnd.nextInt(cells[0].length), y = rnd.nextInt(cells.length);
+            if (cells[y][x] == OBS) {return new Index2D(x, y);}
+        }
+        return null;
+    }
+
+    private static boolean adjacent(Pixel2D a, Pixel2D b, int[][] cells, boolean cyclic) {
+        int w = cells[0].length, h = cells.length;
+        int dx = Math.abs(a.getX() - b.getX()), dy = Math.abs(a.getY() - b.getY());
+        if (cyclic) {
+            dx = Math.min(dx, w - dx);
+            dy = Math.min(dy, h - dy);
+        }
+        return dx + dy == 1;
+    }
+
+    private static String describe(int i, int[][] cells, boolean cyclic) {
+        return "map " + i + " (" + cells[0].length + "x" + cells.length + (cyclic ? ", cyclic" : "") + ")";
+    }
+}
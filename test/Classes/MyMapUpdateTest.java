@@ -0,0 +1,97 @@
+package Classes;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks MyMap.update against building a new map from the same board: random boards changed in a few cells,
+ * boards of another size or too wide for a PixelsQueue, and ragged boards (which must leave the map untouched).
+ */
+class MyMapUpdateTest {
+
+    @Test
+    void updateMatchesANewMap() {
+        Random rnd = new Random(4);
+        for (int i = 0; i < 200; i+=1) {
+            int w = 1 + rnd.nextInt(20), h = 1 + rnd.nextInt(20);
+            int[][] board = randomBoard(rnd, w, h);
+            MyMap map = new MyMap(board, rnd.nextBoolean());
+            int[][] next = copy(board);
+            int changes = rnd.nextInt(4);
+            for (int c = 0; c < changes; c+=1) {next[rnd.nextInt(h)][rnd.nextInt(w)] = rnd.nextInt(4);}
+
+            int version = map.getVersion();
+            PixelsQueue changed = map.update(next);
+            assertArrayEquals(next, map.getMap(), "board " + i);
+            // the changed cells, in row-major order
+            PixelsQueue expected = new PixelsQueue();
+            for (int y = 0; y < h; y+=1) {
+                for (int x = 0; x < w; x+=1) {
+                    if (board[y][x] != next[y][x]) {expected.enqueue(x, y);}
+                }
+            }
+            assertEquals(expected.toString(), changed.toString(), "board " + i);
+            assertEquals(expected.isEmpty(), map.getVersion() == version, "board " + i);
+        }
+    }
+
+    @Test
+    void updateOfAnotherSizeReplacesTheMap() {
+        MyMap map = new MyMap(5, 4, 0, false);
+        int[][] board = randomBoard(new Random(5), 7, 3);
+        assertNull(map.update(board));
+        assertArrayEquals(board, map.getMap());
+    }
+
+    @Test
+    void updateOfABoardWiderThanAPixelsQueueReplacesTheMap() {
+        int[][] board = new int[2][PixelsQueue.MAX_COORDINATE + 2];
+        MyMap map = new MyMap(board, false);
+        int version = map.getVersion();
+        int[][] next = copy(board);
+        next[0][0] = 1;
+        next[1][PixelsQueue.MAX_COORDINATE + 1] = 1;
+        assertNull(map.update(next));
+        assertArrayEquals(next, map.getMap());
+        assertNotEquals(version, map.getVersion());
+    }
+
+    @Test
+    void raggedUpdateLeavesTheMapUntouched() {
+        int[][] board = randomBoard(new Random(6), 6, 5);
+        MyMap map = new MyMap(board, false);
+        int version = map.getVersion();
+        int[][] next = copy(board);
+        for (int y = 0; y < next.length; y+=1) {
+            for (int x = 0; x < next[y].length; x+=1) {next[y][x] += 1;}
+        }
+        // every row but the last one is fine, so a check row by row would have written them already
+        next[4] = new int[5];
+        assertThrows(RuntimeException.class, () -> map.update(next));
+        assertArrayEquals(board, map.getMap());
+        assertEquals(version, map.getVersion());
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    private static int[][] randomBoard(Random rnd, int w, int h) {
+        int[][] ans = new int[h][w];
+        for (int y = 0; y < h; y+=1) {
+            for (int x = 0; x < w; x+=1) {ans[y][x] = rnd.nextInt(4);}
+        }
+        return ans;
+    }
+
+    private static int[][] copy(int[][] board) {
+        int[][] ans = new int[board.length][];
+        for (int y = 0; y < board.length; y+=1) {ans[y] = board[y].clone();}
+        return ans;
+    }
+}
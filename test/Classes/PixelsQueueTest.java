@@ -0,0 +1,54 @@
+package Classes;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the FIFO order of PixelsQueue across the growth of its ring buffer, and the range of its packed coordinates.
+ */
+class PixelsQueueTest {
+
+    @Test
+    void keepsTheOrderWhileWrappingAndGrowing() {
+        PixelsQueue q = new PixelsQueue(4);
+        int next = 0, expected = 0;
+        // dequeues as often as it enqueues for a while, so the head goes around the buffer before it grows
+        for (int round = 0; round < 100; round+=1) {
+            q.enqueue(next, next * 7 % 1000);
+            next += 1;
+            if (round % 3 != 0) {
+                assertEquals(new Index2D(expected, expected * 7 % 1000), q.dequeue());
+                expected += 1;
+            }
+        }
+        while (!q.isEmpty()) {
+            assertEquals(new Index2D(expected, expected * 7 % 1000), q.dequeue());
+            expected += 1;
+        }
+        assertEquals(next, expected);
+    }
+
+    @Test
+    void holdsTheWholeCoordinateRange() {
+        PixelsQueue q = new PixelsQueue();
+        q.enqueue(PixelsQueue.MAX_COORDINATE, 0);
+        q.enqueue(0, PixelsQueue.MAX_COORDINATE);
+        q.enqueue(PixelsQueue.MAX_COORDINATE, PixelsQueue.MAX_COORDINATE);
+        assertEquals(new Index2D(PixelsQueue.MAX_COORDINATE, 0), q.dequeue());
+        assertEquals(new Index2D(0, PixelsQueue.MAX_COORDINATE), q.dequeue());
+        assertEquals(new Index2D(PixelsQueue.MAX_COORDINATE, PixelsQueue.MAX_COORDINATE), q.dequeue());
+    }
+
+    @Test
+    void rejectsCoordinatesOutOfRange() {
+        PixelsQueue q = new PixelsQueue();
+        assertThrows(IllegalArgumentException.class, () -> q.enqueue(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> q.enqueue(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> q.enqueue(PixelsQueue.MAX_COORDINATE + 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> q.enqueue(new Index2D(0, 1 << 20)));
+        assertTrue(q.isEmpty());
+    }
+}
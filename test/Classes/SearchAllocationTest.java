@@ -0,0 +1,96 @@
+package Classes;
+
+import Classes.Interfaces.Pixel2D;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that, once warmed up on the thread's SearchWorkspace, the searches allocate nothing but their results:
+ * fill nothing, shortestPath the returned path array, allDistance the returned map.
+ * The bytes are read from the thread allocation counter of com.sun.management.ThreadMXBean.
+ */
+class SearchAllocationTest {
+
+    private static final com.sun.management.ThreadMXBean THREADS = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final int OBS = 1;
+    private static final int SIZE = 100;
+    private static final int WARMUPS = 2000;
+    private static final int CALLS = 1000;
+    // the array headers, the MyMap object and whatever a JIT deoptimization may cost once in a while
+    private static final double SLACK = 256;
+
+    @Test
+    void fillAllocatesNothing() {
+        MyMap map = maze(false);
+        Pixel2D start = new Index2D(0, 0);
+        int[] color = {5};
+        double bytes = bytesPerCall(() -> {
+            int ans = map.fill(start, color[0]);
+            color[0] = color[0] == 5 ? 0 : 5;
+            return ans;
+        });
+        assertTrue(bytes < 1, "fill allocates " + bytes + " bytes per call");
+    }
+
+    @Test
+    void shortestPathAllocatesOnlyThePath() {
+        for (boolean cyclic : new boolean[]{false, true}) {
+            for (SearchMode mode : SearchMode.values()) {
+                MyMap map = maze(cyclic);
+                map.setSearchMode(mode);
+                Pixel2D start = new Index2D(0, 0);
+                Pixel2D end = new Index2D(SIZE / 2, SIZE / 2);
+                Pixel2D[] path = map.shortestPath(start, end, OBS);
+                assertNotNull(path);
+                double bytes = bytesPerCall(() -> map.shortestPath(start, end, OBS).length);
+                // a reference is at most 8 bytes
+                double limit = 8.0 * path.length + SLACK;
+                assertTrue(bytes <= limit, mode + (cyclic ? " cyclic" : " flat") + ": " + bytes + " bytes per call, the path takes at most " + limit);
+            }
+        }
+    }
+
+    @Test
+    void allDistanceAllocatesOnlyTheResult() {
+        for (boolean cyclic : new boolean[]{false, true}) {
+            MyMap map = maze(cyclic);
+            Pixel2D start = new Index2D(0, 0);
+            double bytes = bytesPerCall(() -> map.allDistance(start, OBS).getWidth());
+            double limit = 4.0 * SIZE * SIZE + SLACK;
+            assertTrue(bytes <= limit, (cyclic ? "cyclic" : "flat") + ": " + bytes + " bytes per call, the result takes " + limit);
+        }
+    }
+
+    ////////////////////// Private Methods ///////////////////////
+
+    // the mean bytes op allocates per call, after WARMUPS calls to let the JIT compile it and the workspace grow
+    private static double bytesPerCall(IntSupplier op) {
+        long sink = 0;
+        for (int i = 0; i < WARMUPS; i+=1) {sink += op.getAsInt();}
+        long before = THREADS.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < CALLS; i+=1) {sink += op.getAsInt();}
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - before;
+        assertTrue(sink != Long.MIN_VALUE);
+        return (double) bytes / CALLS;
+    }
+
+    // a SIZE x SIZE map with 20% obstacles, where the corner and the middle are free
+    private static MyMap maze(boolean cyclic) {
+        Random rnd = new Random(7);
+        MyMap ans = new MyMap(SIZE, SIZE, 0, cyclic);
+        for (int y = 0; y < SIZE; y+=1) {
+            for (int x = 0; x < SIZE; x+=1) {
+                if (rnd.nextDouble() < 0.2) {ans.setPixel(x, y, OBS);}
+            }
+        }
+        ans.setPixel(0, 0, 0);
+        ans.setPixel(SIZE / 2, SIZE / 2, 0);
+        return ans;
+    }
+}